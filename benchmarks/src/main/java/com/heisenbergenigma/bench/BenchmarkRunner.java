@@ -0,0 +1,35 @@
+package com.heisenbergenigma.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class runs the JMH suite with the GC profiler always attached,
+ * so every result comes with its allocation rate ({@code gc.alloc.rate.norm} is the
+ * number of bytes allocated per operation). Any regular JMH command line option can
+ * be passed, for example a benchmark name pattern.
+ * <p>
+ * Run it with {@code java -jar target/benchmarks.jar [jmh options]}.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected by the command line.
+     *
+     * @param args JMH command line options.
+     * @throws RunnerException            if a benchmark fails.
+     * @throws CommandLineOptionException if the options cannot be parsed.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
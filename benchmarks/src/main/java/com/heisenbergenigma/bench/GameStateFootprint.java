@@ -0,0 +1,57 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.main.GameState;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The GameStateFootprint class measures how many heap bytes one session's
+ * {@link GameState} costs. It allocates a large batch of states, sets a few
+ * flags on each so they cannot be optimized away, and divides the bytes the
+ * thread allocated by the number of states.
+ * <p>
+ * Run it with {@code java -cp target/benchmarks.jar com.heisenbergenigma.bench.GameStateFootprint [sessions]}.
+ */
+public class GameStateFootprint {
+
+    private static final int DEFAULT_SESSIONS = 1_000_000;
+
+    /**
+     * Runs the footprint measurement and prints the bytes used per session.
+     *
+     * @param args optional number of sessions to allocate.
+     */
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Warm up so class loading and the enum's masks are not part of the measurement
+        allocate(10_000);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        GameState[] states = allocate(sessions);
+        long after = threads.getCurrentThreadAllocatedBytes();
+
+        // The array of references is part of the measurement, take it out again
+        long arrayBytes = 16L + 4L * sessions;
+        double perSession = (double) (after - before - arrayBytes) / sessions;
+
+        System.out.println("Sessions allocated:      " + states.length);
+        System.out.println("Flags tracked:           " + GameState.Flag.values().length);
+        System.out.printf("Heap bytes per session:  %.1f%n", perSession);
+        System.out.println("Packed flags of last:    0b" + Long.toBinaryString(states[sessions - 1].getFlags()));
+    }
+
+    private static GameState[] allocate(int count) {
+        GameState[] states = new GameState[count];
+        for (int i = 0; i < count; i++) {
+            GameState state = new GameState();
+            state.setJanitorHintReceived(true);
+            state.setPinPuzzleSolved((i & 1) == 0);
+            state.setHiddenCodePuzzleSolved((i & 2) == 0);
+            states[i] = state;
+        }
+        return states;
+    }
+}
@@ -0,0 +1,183 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.server.GameServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The HibernationFootprint class measures the heap an idle player's session holds
+ * while their game is in memory and once it is hibernated. It opens the same number
+ * of sessions against two {@link GameServer}s in this JVM, one that never hibernates
+ * and one that hibernates after a short idle time, plays every session into the Car
+ * Wash and one move on, and compares the heap they hold. It then checks that a
+ * sample of the hibernated sessions answers their next move with that move's turn
+ * and nothing of the turns replayed to rebuild them.
+ * <p>
+ * Run it with {@code java -cp target/benchmarks.jar com.heisenbergenigma.bench.HibernationFootprint [sessions] [hibernate-after-millis]}.
+ */
+public class HibernationFootprint {
+
+    private static final int DEFAULT_SESSIONS = 1_000;
+    private static final int DEFAULT_HIBERNATE_AFTER_MILLIS = 2_000;
+    private static final String MOVE_PROMPT = "Enter your move";
+    private static final String POSITION = "You are in cell";
+    private static final String LEVEL_TITLE = "Welcome to Level";
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+    private static final int PROBED_SESSIONS = 10;
+
+    /**
+     * Runs the measurement and prints the results.
+     *
+     * @param args optional number of sessions and optional idle time before hibernation.
+     * @throws Exception if a session cannot be opened or does not respond.
+     */
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        int hibernateAfterMillis = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HIBERNATE_AFTER_MILLIS;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        // A first round loads the world content and the classes every session shares
+        GameServer warmUp = new GameServer(0, Files.createTempDirectory("saves"), 0);
+        warmUp.start();
+        heapHeldBy(warmUp, PROBED_SESSIONS, memory, () -> true, null);
+
+        GameServer awake = new GameServer(0, Files.createTempDirectory("saves"), 0);
+        awake.start();
+        long awakeHeap = heapHeldBy(awake, sessions, memory, () -> true, null);
+        System.out.println("Sessions in a game:            " + sessions);
+        System.out.println("Heap per idle session, awake:  " + awakeHeap / sessions + " bytes");
+
+        GameServer hibernating = new GameServer(0, Files.createTempDirectory("saves"), hibernateAfterMillis);
+        hibernating.start();
+        List<Socket> clients = new ArrayList<>(sessions);
+        long hibernatedHeap = heapHeldBy(hibernating, sessions, memory,
+                () -> hibernating.getHibernatedSessions() == sessions, clients);
+        System.out.println("Heap per hibernated session:   " + hibernatedHeap / sessions + " bytes");
+        System.out.println("Heap saved per session:        " + (awakeHeap - hibernatedHeap) / sessions + " bytes");
+
+        // Hibernated sessions must wake up where they were: move on with a sample of them
+        int step = Math.max(1, clients.size() / PROBED_SESSIONS);
+        for (int i = 0; i < clients.size(); i += step) {
+            Socket socket = clients.get(i);
+            String turn = send(socket, "gs", MOVE_PROMPT);
+            if (turn.indexOf(POSITION) != turn.lastIndexOf(POSITION) || turn.contains(LEVEL_TITLE)) {
+                throw new IllegalStateException("A woken session showed more than its next turn:\n" + turn);
+            }
+        }
+        System.out.println("Sampled sessions woken up:     yes");
+
+        for (Socket socket : clients) {
+            socket.close();
+        }
+        hibernating.stop();
+    }
+
+    /**
+     * Plays the given number of sessions into a game on a server, waits until the
+     * condition holds and measures the heap they hold.
+     *
+     * @param server   The server to connect to.
+     * @param sessions The number of sessions.
+     * @param memory   The heap to measure.
+     * @param ready    The condition to wait for before measuring.
+     * @param kept     The list to keep the connections in, or null to close them.
+     * @return The heap held, in bytes.
+     */
+    private static long heapHeldBy(GameServer server, int sessions, MemoryMXBean memory,
+                                   BooleanSupplier ready, List<Socket> kept) throws Exception {
+        memory.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+        List<Socket> clients = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            Socket socket = new Socket();
+            socket.connect(address);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            clients.add(socket);
+        }
+        // Every session takes each step before any takes the next, so their pauses overlap
+        for (Socket socket : clients) {
+            readUntil(socket.getInputStream(), "Enter your choice");
+        }
+        sendToAll(clients, "1", "Enter your name");
+        sendToAll(clients, null, "(yes/no)");
+        sendToAll(clients, "yes", "Do you want to proceed");
+        sendToAll(clients, "yes", MOVE_PROMPT);
+        sendToAll(clients, "ge", MOVE_PROMPT);
+        while (!ready.getAsBoolean()) {
+            Thread.sleep(100);
+        }
+        memory.gc();
+        long held = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        if (kept != null) {
+            kept.addAll(clients);
+        } else {
+            for (Socket socket : clients) {
+                socket.close();
+            }
+            server.stop();
+            while (server.getActiveSessions() > 0) {
+                Thread.sleep(100);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Sends a line to every session, then reads every answer up to the given text.
+     * A null line is a player name, different for every session.
+     */
+    private static void sendToAll(List<Socket> clients, String line, String marker) throws IOException {
+        for (int i = 0; i < clients.size(); i++) {
+            Socket socket = clients.get(i);
+            socket.getOutputStream().write(((line == null ? "player" + i : line) + "\n").getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+        }
+        for (Socket socket : clients) {
+            readUntil(socket.getInputStream(), marker);
+        }
+    }
+
+    /**
+     * Sends a line to a session and reads its answer up to the given text.
+     *
+     * @return The answer.
+     */
+    private static String send(Socket socket, String line, String marker) throws IOException {
+        socket.getOutputStream().write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        socket.getOutputStream().flush();
+        return readUntil(socket.getInputStream(), marker);
+    }
+
+    /**
+     * Reads from the stream until the given text has been received.
+     *
+     * @param in     The stream of one session.
+     * @param marker The text to wait for.
+     * @return Everything received.
+     * @throws IOException if the session closes or times out before the text arrives.
+     */
+    private static String readUntil(InputStream in, String marker) throws IOException {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        while (!received.toString(StandardCharsets.UTF_8).contains(marker)) {
+            int read = in.read(buffer);
+            if (read < 0) {
+                throw new IOException("Session closed before sending '" + marker + "'");
+            }
+            received.write(buffer, 0, read);
+        }
+        return received.toString(StandardCharsets.UTF_8);
+    }
+}
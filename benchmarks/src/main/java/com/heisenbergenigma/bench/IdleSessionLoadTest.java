@@ -0,0 +1,119 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.server.GameServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The IdleSessionLoadTest class opens many concurrent connections to a
+ * {@link GameServer}, waits until every session is parked at the main menu and
+ * reports what the idle sessions cost. It then checks that a sample of the
+ * sessions still respond.
+ * <p>
+ * Run it with {@code java -cp target/benchmarks.jar com.heisenbergenigma.bench.IdleSessionLoadTest [sessions] [host:port]}.
+ * Without an address it starts a server in the same JVM, which also lets it report
+ * the server's heap and thread counts. Every session needs a file descriptor on both
+ * ends, so for 10k sessions with an {@code ulimit -n} below 20k, run the server in its
+ * own process and pass its address.
+ */
+public class IdleSessionLoadTest {
+
+    private static final int DEFAULT_SESSIONS = 10_000;
+    private static final String MENU_PROMPT = "Enter your choice (1-3)";
+    private static final String NAME_PROMPT = "Enter your name";
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+    private static final int PROBED_SESSIONS = 10;
+
+    /**
+     * Runs the load test and prints the results.
+     *
+     * @param args optional number of sessions and optional server address.
+     * @throws Exception if a session cannot be opened or does not respond.
+     */
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        GameServer server = null;
+        InetSocketAddress address;
+        if (args.length > 1) {
+            String[] hostAndPort = args[1].split(":");
+            address = new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+        } else {
+            server = new GameServer(0);
+            server.start();
+            address = new InetSocketAddress("localhost", server.getPort());
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        List<Socket> clients = new ArrayList<>(sessions);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            Socket socket = new Socket();
+            socket.connect(address);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            clients.add(socket);
+        }
+        for (Socket socket : clients) {
+            readUntil(socket.getInputStream(), MENU_PROMPT);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Idle sessions at main menu: " + clients.size());
+        System.out.println("Time to connect all:        " + elapsedMillis + " ms");
+        if (server != null) {
+            memory.gc();
+            long heapAfter = memory.getHeapMemoryUsage().getUsed();
+            System.out.println("Server active sessions:     " + server.getActiveSessions());
+            System.out.println("Platform threads alive:     " + ManagementFactory.getThreadMXBean().getThreadCount());
+            System.out.println("Heap used by sessions:      " + (heapAfter - heapBefore) / (1024 * 1024) + " MB");
+            System.out.println("Heap per idle session:      " + (heapAfter - heapBefore) / clients.size() + " bytes");
+        }
+
+        // Idle sessions must still be served: start a new game on a sample of them
+        int step = Math.max(1, clients.size() / PROBED_SESSIONS);
+        for (int i = 0; i < clients.size(); i += step) {
+            Socket socket = clients.get(i);
+            socket.getOutputStream().write("1\n".getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            readUntil(socket.getInputStream(), NAME_PROMPT);
+        }
+        System.out.println("Sampled sessions responsive: yes");
+
+        for (Socket socket : clients) {
+            socket.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * Reads from the stream until the given text has been received.
+     *
+     * @param in     The stream of one session.
+     * @param marker The text to wait for.
+     * @throws IOException if the session closes or times out before the text arrives.
+     */
+    private static void readUntil(InputStream in, String marker) throws IOException {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        while (!received.toString(StandardCharsets.UTF_8).contains(marker)) {
+            int read = in.read(buffer);
+            if (read < 0) {
+                throw new IOException("Session closed before sending '" + marker + "'");
+            }
+            received.write(buffer, 0, read);
+        }
+    }
+}
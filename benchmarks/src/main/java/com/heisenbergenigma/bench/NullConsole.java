@@ -0,0 +1,52 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.OutputSink;
+
+import java.io.InputStream;
+
+/**
+ * The NullConsole class binds a {@link GameConsole} whose output is thrown away, so
+ * a benchmark measures the cost of formatting and encoding the game's text rather
+ * than the cost of a terminal.
+ */
+public final class NullConsole {
+
+    private NullConsole() {
+    }
+
+    /**
+     * Binds a console with no input and discarded output to the current thread.
+     */
+    public static void bind() {
+        bind(InputStream.nullInputStream());
+    }
+
+    /**
+     * Binds a console reading from the given stream and discarding its output to the
+     * current thread.
+     *
+     * @param input The stream the game reads player input from.
+     */
+    public static void bind(InputStream input) {
+        bind(input, false);
+    }
+
+    /**
+     * Binds a console reading from the given stream and discarding its output to the
+     * current thread.
+     *
+     * @param input The stream the game reads player input from.
+     * @param ansi  boolean indicating whether the console claims ANSI cursor positioning.
+     */
+    public static void bind(InputStream input, boolean ansi) {
+        GameConsole.bind(new GameConsole(input, OutputSink.discard(), ansi));
+    }
+
+    /**
+     * Removes the console from the current thread.
+     */
+    public static void unbind() {
+        GameConsole.unbind();
+    }
+}
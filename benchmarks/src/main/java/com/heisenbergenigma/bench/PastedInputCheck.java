@@ -0,0 +1,105 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.main.MainGame;
+import com.heisenbergenigma.puzzles.PinCodePuzzle;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.OutputSink;
+import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.utils.SaveLoadManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * The PastedInputCheck class guards against lines lost when a player pastes many
+ * lines at once. It hands a whole game's worth of input to one {@link GameConsole}
+ * in a single read, as a terminal does with pasted text: a new game, the name, the
+ * answers to the opening questions, moves, the inventory and its prompt, and the
+ * answers to the PIN puzzle of the Car Wash, then an exit. Every line must get its
+ * own reply, in order, and exits with status 1 if one of them is missing.
+ * <p>
+ * Run it with {@code java -cp target/benchmarks.jar com.heisenbergenigma.bench.PastedInputCheck}.
+ * The benchmarks module runs it in its {@code verify} phase.
+ */
+public class PastedInputCheck {
+
+    private static final String PLAYER_NAME = "Pasted Player";
+    // The lines pasted, one reply expected for each of them
+    private static final String[][] LINES_AND_REPLIES = {
+            {"1", "Enter your name"},
+            {PLAYER_NAME, "Breaking Bad is better than Game of Thrones"},
+            {"yes", "Hello, " + PLAYER_NAME},
+            {"yes", "You are in cell 3,2"},
+            {"gn", "You are in cell 2,2"},
+            {"inventory", "Your inventory is empty."},
+            {"yes", "You are in cell 2,2"},
+            {"gn", "You are in cell 1,2"},
+            {"gw", "You are in cell 1,1"},
+            {"ge", "You are in cell 1,2"},
+            {"ge", "an old safe with a digital keypad"},
+            {"yes", "It requires a 3-digit code to unlock."},
+            {wrongGuess(PinCodePuzzle.SECRET_PIN), "Correct number in correct place: 0"},
+            {PinCodePuzzle.SECRET_PIN, "Correct! You've unlocked the safe."},
+            {"exit", "Exiting game..."},
+    };
+
+    /**
+     * Makes up a guess of the PIN with no digit in its right place.
+     *
+     * @param pin The PIN of the safe.
+     * @return A guess of the same length, each digit 5 away from the PIN's.
+     */
+    private static String wrongGuess(String pin) {
+        StringBuilder guess = new StringBuilder(pin.length());
+        for (int i = 0; i < pin.length(); i++) {
+            guess.append((char) ('0' + (pin.charAt(i) - '0' + 5) % 10));
+        }
+        return guess.toString();
+    }
+
+    /**
+     * Runs the check and prints the reply found for every line.
+     *
+     * @param args not used.
+     * @throws IOException if the temporary save directory cannot be created.
+     */
+    public static void main(String[] args) throws IOException {
+        GameUtils.setAudioEnabled(false);
+        StringBuilder pasted = new StringBuilder();
+        for (String[] lineAndReply : LINES_AND_REPLIES) {
+            pasted.append(lineAndReply[0]).append('\n');
+        }
+        // The whole paste arrives in the first read, before the game has asked for anything
+        ByteArrayInputStream in = new ByteArrayInputStream(pasted.toString().getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameConsole.bind(new GameConsole(in, OutputSink.of(out), false));
+        try {
+            new MainGame(new SaveLoadManager(Files.createTempDirectory("saves"))).start();
+        } catch (RuntimeException e) {
+            // The input ran out before the game was done with it, the replies tell which line was lost
+            System.out.println("The game stopped early: " + e);
+        } finally {
+            GameConsole.unbind();
+        }
+
+        String replies = out.toString(StandardCharsets.UTF_8);
+        boolean passed = !replies.contains("Invalid");
+        int from = 0;
+        for (String[] lineAndReply : LINES_AND_REPLIES) {
+            int found = replies.indexOf(lineAndReply[1], from);
+            System.out.printf("%-16s %s%n", lineAndReply[0], found < 0 ? "LOST, no '" + lineAndReply[1] + "'" : "OK");
+            if (found < 0) {
+                passed = false;
+            } else {
+                from = found + lineAndReply[1].length();
+            }
+        }
+        System.out.println(passed ? "No pasted line was lost." : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
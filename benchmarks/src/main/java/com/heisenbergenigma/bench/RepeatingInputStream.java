@@ -0,0 +1,37 @@
+package com.heisenbergenigma.bench;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The RepeatingInputStream class plays the same lines of input forever, so a
+ * benchmark can read player commands for as long as it runs.
+ */
+public class RepeatingInputStream extends InputStream {
+    private final byte[] data;
+    private int position;
+
+    /**
+     * Constructs a RepeatingInputStream cycling through the given lines.
+     *
+     * @param lines The lines to play, without line terminators.
+     */
+    public RepeatingInputStream(String... lines) {
+        this.data = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read() {
+        int value = data[position];
+        position = (position + 1) % data.length;
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) {
+        int count = Math.min(len, data.length - position);
+        System.arraycopy(data, position, buffer, off, count);
+        position = (position + count) % data.length;
+        return count;
+    }
+}
@@ -0,0 +1,132 @@
+package com.heisenbergenigma.bench;
+
+import com.heisenbergenigma.locations.CarWash;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.OutputSink;
+import com.heisenbergenigma.ui.UiManager;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The TurnAllocationCheck class guards the level loop against allocation regressions.
+ * It plays turns of the Car Wash, moving the player back and forth between the
+ * entrance, the main wash area and the curious customer, on a plain and on an ANSI
+ * console. After a warm-up it divides the bytes the thread allocated by the number of
+ * turns played, and exits with status 1 if a turn allocates more than the threshold.
+ * <p>
+ * Run it with {@code java -cp target/benchmarks.jar com.heisenbergenigma.bench.TurnAllocationCheck [turns] [threshold bytes]}.
+ * The benchmarks module runs it with the defaults in its {@code verify} phase.
+ */
+public class TurnAllocationCheck {
+
+    private static final int DEFAULT_TURNS = 200_000;
+    private static final long DEFAULT_THRESHOLD = 64;
+    // From the entrance: the main wash area, back, the curious customer, back
+    private static final String[] MOVES = {"gn", "gs", "ge", "gw"};
+
+    /**
+     * Runs the check and prints the bytes allocated per turn.
+     *
+     * @param args optional number of turns to measure and threshold in bytes per turn.
+     */
+    public static void main(String[] args) {
+        int turns = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TURNS;
+        long threshold = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_THRESHOLD;
+
+        boolean passed = true;
+        for (boolean ansi : new boolean[]{false, true}) {
+            double perTurn = measure(turns, ansi);
+            boolean ok = perTurn <= threshold;
+            System.out.printf("%-6s console: %6.1f bytes per turn (threshold %d) %s%n",
+                    ansi ? "ANSI" : "plain", perTurn, threshold, ok ? "OK" : "FAILED");
+            passed &= ok;
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays turns of the Car Wash on a console of the given kind and measures them.
+     *
+     * @param turns The number of turns to measure.
+     * @param ansi  boolean indicating if the console repaints the map in place.
+     * @return The bytes allocated per turn.
+     */
+    private static double measure(int turns, boolean ansi) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        GameConsole.bind(new GameConsole(new RepeatingMoves(), OutputSink.discard(), ansi));
+        try {
+            CarWash carWash = new CarWash(new GameState());
+            Player player = new Player("Allocation Check");
+            UiManager uiManager = new UiManager(null);
+            player.enterArea(3, 3, 2, 1);
+
+            // Warm up so the turn is compiled and the NPCs on the route have spoken
+            for (int i = 0; i < turns; i++) {
+                carWash.playTurn(player, uiManager, false);
+            }
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < turns; i++) {
+                carWash.playTurn(player, uiManager, false);
+            }
+            long after = threads.getCurrentThreadAllocatedBytes();
+            return (double) (after - before) / turns;
+        } finally {
+            GameConsole.unbind();
+        }
+    }
+
+    /**
+     * The RepeatingMoves class types {@link #MOVES} over and over, one line per read.
+     */
+    private static class RepeatingMoves extends InputStream {
+        private final byte[][] lines = new byte[MOVES.length][];
+        private int lineIndex;
+        private int offset;
+
+        RepeatingMoves() {
+            for (int i = 0; i < MOVES.length; i++) {
+                lines[i] = (MOVES[i] + "\n").getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public int read() {
+            byte[] line = nextLine();
+            return line[offset++];
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            byte[] line = nextLine();
+            int count = Math.min(len, line.length - offset);
+            System.arraycopy(line, offset, buffer, off, count);
+            offset += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            // Never invite a reader to buffer past the line it is reading
+            return 0;
+        }
+
+        private byte[] nextLine() {
+            if (offset == lines[lineIndex].length) {
+                lineIndex = (lineIndex + 1) % lines.length;
+                offset = 0;
+            }
+            return lines[lineIndex];
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.heisenbergenigma.locations;
+
+import com.heisenbergenigma.bench.NullConsole;
+import com.heisenbergenigma.interfaces.CellContent;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.npcs.NPC;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.puzzles.Puzzle;
+import com.heisenbergenigma.world.ChunkedGrid;
+import com.heisenbergenigma.world.LevelDefinition;
+import com.heisenbergenigma.world.WorldContent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the cell lookup of a turn on the Car Wash: finding the description
+ * of the player's cell and handing its content its turn, for every cell of the level.
+ * Every NPC has already spoken and every puzzle is solved, so a visit prints nothing
+ * and the benchmarks measure the lookup and the dispatch alone.
+ * <p>
+ * {@code stringKeys} is the lookup locations used to do, a {@code "row,col"} key into a
+ * HashMap and instanceof checks on an {@code Object[][]}. {@code chunkedGrid} looks the
+ * cell up in two sparse grids and still checks its type. {@code cellStore} is the
+ * lookup locations do now. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}, which must be 0 B/op for {@code cellStore}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellLookupBenchmark {
+    private int rows;
+    private int cols;
+    private Map<String, String> descriptionsByKey;
+    private Object[][] matrix;
+    private ChunkedGrid<String> descriptionGrid;
+    private ChunkedGrid<Object> contentGrid;
+    private CellStore cells;
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        NullConsole.bind();
+        LevelDefinition level = WorldContent.shared().loadLevel(CarWash.LEVEL_ID);
+        Location carWash = new CarWash(level, new GameState());
+        cells = carWash.cells;
+        player = new Player("Benchmark");
+        rows = level.getRows();
+        cols = level.getCols();
+
+        descriptionsByKey = new HashMap<>();
+        matrix = new Object[rows][cols];
+        descriptionGrid = new ChunkedGrid<>(rows, cols);
+        contentGrid = new ChunkedGrid<>(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int slot = cells.find(row, col);
+                if (slot < 0) {
+                    continue;
+                }
+                if (cells.getDescription(slot) != null) {
+                    descriptionsByKey.put(row + "," + col, cells.getDescription(slot));
+                    descriptionGrid.set(row, col, cells.getDescription(slot));
+                }
+                CellContent content = cells.getContent(slot);
+                if (content instanceof NPC) {
+                    // Let every NPC speak once, as on the first visit to its cell
+                    ((NPC) content).interact();
+                } else if (content instanceof Puzzle) {
+                    ((Puzzle) content).setSolved(true);
+                }
+                if (content != CellContent.NONE) {
+                    matrix[row][col] = content;
+                    contentGrid.set(row, col, content);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void unbindConsole() {
+        NullConsole.unbind();
+    }
+
+    @Benchmark
+    public void stringKeys(Blackhole blackhole) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                blackhole.consume(descriptionsByKey.getOrDefault(row + "," + col, "You are in an unmarked area."));
+                Object content = matrix[row][col];
+                if (content instanceof NPC) {
+                    ((NPC) content).interact();
+                } else if (content instanceof Puzzle) {
+                    Puzzle puzzle = (Puzzle) content;
+                    if (!puzzle.isSolved()) {
+                        puzzle.solvePuzzle(player);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void chunkedGrid(Blackhole blackhole) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                blackhole.consume(descriptionGrid.get(row, col));
+                Object content = contentGrid.get(row, col);
+                if (content instanceof NPC) {
+                    ((NPC) content).interact();
+                } else if (content instanceof Puzzle) {
+                    Puzzle puzzle = (Puzzle) content;
+                    if (!puzzle.isSolved()) {
+                        puzzle.solvePuzzle(player);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void cellStore(Blackhole blackhole) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int slot = cells.find(row, col);
+                if (slot >= 0) {
+                    blackhole.consume(cells.getDescription(slot));
+                    cells.getContent(slot).visit(player);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.heisenbergenigma.locations;
+
+import com.heisenbergenigma.bench.NullConsole;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.player.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link Location#interactWithCurrentCell(Player)} on the Car Wash,
+ * for an empty cell and for a cell whose NPC has already spoken, which is what
+ * almost every turn of the level loop does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocationBenchmark {
+    private CarWash carWash;
+    private Player atEntrance;
+    private Player inWashArea;
+
+    @Setup
+    public void setUp() {
+        NullConsole.bind();
+        carWash = new CarWash(new GameState());
+        atEntrance = new Player("Benchmark");
+        atEntrance.enterArea(3, 3, 2, 1);
+        inWashArea = new Player("Benchmark");
+        inWashArea.enterArea(3, 3, 1, 1);
+        // Let the clerk at the entrance speak once, as on the first turn of the level
+        carWash.interactWithCurrentCell(atEntrance);
+    }
+
+    @TearDown
+    public void unbindConsole() {
+        NullConsole.unbind();
+    }
+
+    @Benchmark
+    public void emptyCell() {
+        carWash.interactWithCurrentCell(inWashArea);
+    }
+
+    @Benchmark
+    public void npcCell() {
+        carWash.interactWithCurrentCell(atEntrance);
+    }
+}
@@ -0,0 +1,51 @@
+package com.heisenbergenigma.player;
+
+import com.heisenbergenigma.bench.NullConsole;
+import com.heisenbergenigma.items.ItemCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link InventoryManager#displayInventory()} with a Level 2 sized inventory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryManagerBenchmark {
+    private InventoryManager inventory;
+
+    @Setup
+    public void setUp() {
+        NullConsole.bind();
+        inventory = new InventoryManager(UUID.randomUUID());
+        inventory.addItem(ItemCatalog.MYSTERIOUS_NOTE);
+        inventory.addItem(ItemCatalog.COORDINATES_NOTE);
+        inventory.addItem(ItemCatalog.GPS_DEVICE);
+        inventory.addItem(ItemCatalog.ENCRYPTED_USB_DRIVE);
+    }
+
+    @TearDown
+    public void unbindConsole() {
+        NullConsole.unbind();
+    }
+
+    @Benchmark
+    public void displayInventory() {
+        inventory.displayInventory();
+    }
+}
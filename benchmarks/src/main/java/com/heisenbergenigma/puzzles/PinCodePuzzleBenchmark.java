@@ -0,0 +1,42 @@
+package com.heisenbergenigma.puzzles;
+
+import com.heisenbergenigma.main.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the feedback {@link PinCodePuzzle} gives on a wrong guess, including
+ * handing the step's output over.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PinCodePuzzleBenchmark {
+    private PinCodePuzzle puzzle;
+    private PuzzleContext ctx;
+
+    @Setup
+    public void setUp() {
+        puzzle = new PinCodePuzzle(new GameState());
+        ctx = new PuzzleContext(null);
+    }
+
+    @Benchmark
+    public PuzzleStep provideFeedback() {
+        puzzle.provideFeedback(ctx, "321");
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+}
@@ -0,0 +1,78 @@
+package com.heisenbergenigma.ui;
+
+import com.heisenbergenigma.bench.NullConsole;
+import com.heisenbergenigma.world.ChunkedGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link MapRenderer#draw(int, int)} for a player walking back and
+ * forth between two cells, with full frames and with ANSI repaints in place, on the
+ * 3x3 Car Wash and in the middle of a large, mostly empty level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapRendererBenchmark {
+    private final String[][] locationLabels = {
+            {"Maintenance Room", "Break Room", "Storage Room"},
+            {"Back Exit", "Main Wash Area", "Manager's Office"},
+            {"Secret Area", "Entrance", "Waiting Area"}
+    };
+
+    @Param({"false", "true"})
+    public boolean ansi;
+
+    @Param({"3", "300"})
+    public int size;
+
+    private MapRenderer renderer;
+    private int center;
+    private int row;
+
+    @Setup
+    public void bindConsole() {
+        NullConsole.bind(InputStream.nullInputStream(), ansi);
+        ChunkedGrid<String> labels = new ChunkedGrid<>(size, size);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                // The Car Wash in the corner, a labelled cell in every seventh one elsewhere
+                if (r < 3 && c < 3) {
+                    labels.set(r, c, locationLabels[r][c]);
+                } else if ((r * size + c) % 7 == 0) {
+                    labels.set(r, c, locationLabels[r % 3][c % 3]);
+                }
+            }
+        }
+        renderer = new MapRenderer(labels);
+        center = size == 3 ? 1 : size / 2;
+        row = center + 1;
+    }
+
+    @TearDown
+    public void unbindConsole() {
+        NullConsole.unbind();
+    }
+
+    @Benchmark
+    public void draw() {
+        row = row == center + 1 ? center : center + 1;
+        renderer.draw(row, center);
+    }
+}
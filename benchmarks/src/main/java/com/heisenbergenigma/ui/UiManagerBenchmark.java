@@ -0,0 +1,54 @@
+package com.heisenbergenigma.ui;
+
+import com.heisenbergenigma.bench.NullConsole;
+import com.heisenbergenigma.bench.RepeatingInputStream;
+import com.heisenbergenigma.commands.CommandRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link UiManager#readCommand(CommandRegistry, String, String)}: reading
+ * one command and looking its verb up among the verbs of a level, including the
+ * prompt it prints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UiManagerBenchmark {
+    private UiManager uiManager;
+    private CommandRegistry<String> commands;
+
+    @Setup
+    public void setUp() {
+        NullConsole.bind(new RepeatingInputStream("gn", " GE ", "gs", "gw", "inventory"));
+        uiManager = new UiManager(null);
+        commands = new CommandRegistry<>();
+        for (String verb : new String[]{"gn", "gs", "ge", "gw", "inventory", "exit"}) {
+            commands.register(verb, verb);
+        }
+    }
+
+    @TearDown
+    public void unbindConsole() {
+        NullConsole.unbind();
+    }
+
+    @Benchmark
+    public String readCommand() {
+        return uiManager.readCommand(commands, "Enter your move: ", "Invalid command.");
+    }
+}
@@ -0,0 +1,91 @@
+package com.heisenbergenigma.utils;
+
+import com.heisenbergenigma.items.ItemCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of a {@link SaveLoadManager} keeping the saves of {@value #PLAYERS}
+ * players in a {@link MappedSaveStore}, as a server does: saves and loads go round
+ * the players one by one. Compare {@code save} with the one file per player of
+ * {@link SaveLoadManagerBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappedSaveStoreBenchmark {
+    private static final int PLAYERS = 100_000;
+
+    private Path directory;
+    private MappedSaveStore store;
+    private SaveLoadManager saves;
+    private SaveLoadManager.SaveGame[] games;
+    private String[] names;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("saves");
+        store = MappedSaveStore.open(directory);
+        saves = new SaveLoadManager(directory, store);
+        int[] items = {ItemCatalog.CRYPTIC_NOTEBOOK, ItemCatalog.FADED_BUSINESS_CARD, ItemCatalog.MISSING_PAGE};
+        games = new SaveLoadManager.SaveGame[PLAYERS];
+        names = new String[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            names[i] = "player" + i;
+            games[i] = new SaveLoadManager.SaveGame(names[i], UUID.randomUUID(), "car-wash", 1, 2, 0x7FL, 0b111L, 0b11L, 64L, items);
+            saves.save(games[i]);
+        }
+        saves.sync();
+    }
+
+    @TearDown
+    public void deleteSaves() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        saves.save(games[next]);
+        next = (next + 1) % PLAYERS;
+    }
+
+    @Benchmark
+    public SaveLoadManager.SaveGame load() throws IOException {
+        SaveLoadManager.SaveGame game = saves.load(games[next].getPlayerId(), names[next]);
+        next = (next + 1) % PLAYERS;
+        return game;
+    }
+
+    @Benchmark
+    public void saveAndSync() throws IOException {
+        saves.save(games[next]);
+        saves.sync();
+        next = (next + 1) % PLAYERS;
+    }
+}
@@ -0,0 +1,81 @@
+package com.heisenbergenigma.utils;
+
+import com.heisenbergenigma.items.ItemCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of {@link SaveLoadManager} for a player holding the three items of the
+ * Car Wash: encoding and decoding a save in memory, and a whole save and load through
+ * a temporary directory, which is what every journal snapshot does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveLoadManagerBenchmark {
+    private Path directory;
+    private SaveLoadManager saves;
+    private SaveLoadManager.SaveGame save;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("saves");
+        saves = new SaveLoadManager(directory);
+        save = new SaveLoadManager.SaveGame("Benchmark", UUID.randomUUID(), "car-wash", 1, 2, 0x7FL, 0b111L, 0b11L, 64L, new int[]{
+                ItemCatalog.CRYPTIC_NOTEBOOK, ItemCatalog.FADED_BUSINESS_CARD, ItemCatalog.MISSING_PAGE});
+        ByteBuffer buffer = saves.encode(save);
+        encoded = new byte[buffer.remaining()];
+        buffer.get(encoded);
+    }
+
+    @TearDown
+    public void deleteSaves() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return saves.encode(save);
+    }
+
+    @Benchmark
+    public SaveLoadManager.SaveGame decode() throws IOException {
+        return saves.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        saves.save(save);
+    }
+
+    @Benchmark
+    public SaveLoadManager.SaveGame load() throws IOException {
+        return saves.load(save.getPlayerId(), "Benchmark");
+    }
+}
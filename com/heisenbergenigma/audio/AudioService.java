@@ -0,0 +1,152 @@
+package com.heisenbergenigma.audio;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AudioService class runs all background music on its own thread. Game code
+ * submits commands to a queue and carries on at once, while the service thread
+ * carries them out in order on a {@link StreamingMusicPlayer}, so opening files and
+ * sound device lines never holds up the game.
+ * <p>
+ * The thread is a daemon and is started by the first command.
+ */
+public class AudioService {
+    // Fade duration used when switching between the tracks of two scenes
+    public static final int DEFAULT_CROSSFADE_MILLIS = 1500;
+    // How often the volumes are updated during a crossfade
+    private static final long FADE_STEP_MILLIS = 20;
+
+    private final StreamingMusicPlayer player;
+    private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+    private Thread thread;
+
+    /**
+     * Constructs an AudioService playing through a new {@link StreamingMusicPlayer}.
+     */
+    public AudioService() {
+        this(new StreamingMusicPlayer());
+    }
+
+    /**
+     * Constructs an AudioService playing through the given player.
+     *
+     * @param player The player the commands are carried out on.
+     */
+    public AudioService(StreamingMusicPlayer player) {
+        this.player = player;
+    }
+
+    /**
+     * Queues a command to loop the given track, stopping the current one.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     */
+    public void play(String resourcePath) {
+        submit(new Command(CommandType.PLAY, resourcePath, 0));
+    }
+
+    /**
+     * Queues a command to stop the music.
+     */
+    public void stop() {
+        submit(new Command(CommandType.STOP, null, 0));
+    }
+
+    /**
+     * Queues a command to fade from the current track to the given one.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     * @param millis       The duration of the fade.
+     */
+    public void crossfade(String resourcePath, int millis) {
+        submit(new Command(CommandType.CROSSFADE, resourcePath, millis));
+    }
+
+    /**
+     * Queues a command to load the given track ahead of time, so that it starts at
+     * once when it is played.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     */
+    public void prefetch(String resourcePath) {
+        submit(new Command(CommandType.PREFETCH, resourcePath, 0));
+    }
+
+    /**
+     * Queues a command to stop the music and release every track, including the
+     * prefetched one.
+     */
+    public void close() {
+        submit(new Command(CommandType.CLOSE, null, 0));
+    }
+
+    private void submit(Command command) {
+        commands.add(command);
+        synchronized (this) {
+            if (thread == null) {
+                thread = Thread.ofPlatform().daemon().name("audio-service").start(this::processCommands);
+            }
+        }
+    }
+
+    /**
+     * Carries out queued commands until the process ends, waking up regularly while
+     * a crossfade is running to move it on.
+     */
+    private void processCommands() {
+        try {
+            while (true) {
+                Command command = player.isFading()
+                        ? commands.poll(FADE_STEP_MILLIS, TimeUnit.MILLISECONDS)
+                        : commands.take();
+                if (command != null) {
+                    execute(command);
+                }
+                player.tick();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(Command command) {
+        switch (command.type) {
+            case PLAY:
+                player.play(command.resourcePath);
+                break;
+            case STOP:
+                player.stop();
+                break;
+            case CROSSFADE:
+                player.crossfade(command.resourcePath, command.millis);
+                break;
+            case PREFETCH:
+                player.prefetch(command.resourcePath);
+                break;
+            case CLOSE:
+                player.close();
+                break;
+        }
+    }
+
+    private enum CommandType {
+        PLAY, STOP, CROSSFADE, PREFETCH, CLOSE
+    }
+
+    /**
+     * The Command class is one request from the game to the service thread.
+     */
+    private static class Command {
+        private final CommandType type;
+        private final String resourcePath;
+        private final int millis;
+
+        Command(CommandType type, String resourcePath, int millis) {
+            this.type = type;
+            this.resourcePath = resourcePath;
+            this.millis = millis;
+        }
+    }
+}
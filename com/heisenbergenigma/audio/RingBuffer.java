@@ -0,0 +1,90 @@
+package com.heisenbergenigma.audio;
+
+/**
+ * The RingBuffer class is a fixed-size byte queue between one thread producing
+ * audio and one thread playing it. Writers block while the buffer is full and
+ * readers block while it is empty, so the buffer never grows. Closing the buffer
+ * wakes both sides and makes every further call return -1.
+ */
+public class RingBuffer {
+    private final byte[] buffer;
+    private int readIndex;
+    private int count;
+    private boolean closed;
+
+    /**
+     * Constructs a RingBuffer holding at most the given number of bytes.
+     *
+     * @param capacity The size of the buffer in bytes.
+     */
+    public RingBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Copies bytes into the buffer, waiting until there is room for at least one.
+     *
+     * @param source The bytes to copy.
+     * @param off    The index of the first byte to copy.
+     * @param len    The number of bytes to copy.
+     * @return The number of bytes copied, which may be less than len, or -1 once closed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public synchronized int write(byte[] source, int off, int len) throws InterruptedException {
+        while (count == buffer.length && !closed) {
+            wait();
+        }
+        if (closed) {
+            return -1;
+        }
+        int writeIndex = (readIndex + count) % buffer.length;
+        // Copy up to the end of the array, the rest goes in on the next call
+        int copied = Math.min(len, Math.min(buffer.length - count, buffer.length - writeIndex));
+        System.arraycopy(source, off, buffer, writeIndex, copied);
+        count += copied;
+        notifyAll();
+        return copied;
+    }
+
+    /**
+     * Copies bytes out of the buffer, waiting until at least one is available.
+     *
+     * @param target The array to copy into.
+     * @param off    The index in target of the first byte.
+     * @param len    The maximum number of bytes to copy.
+     * @return The number of bytes copied, or -1 once closed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public synchronized int read(byte[] target, int off, int len) throws InterruptedException {
+        while (count == 0 && !closed) {
+            wait();
+        }
+        if (closed) {
+            return -1;
+        }
+        int copied = Math.min(len, Math.min(count, buffer.length - readIndex));
+        System.arraycopy(buffer, readIndex, target, off, copied);
+        readIndex = (readIndex + copied) % buffer.length;
+        count -= copied;
+        notifyAll();
+        return copied;
+    }
+
+    /**
+     * Closes the buffer, discarding its content and waking any waiting thread.
+     */
+    public synchronized void close() {
+        closed = true;
+        count = 0;
+        notifyAll();
+    }
+
+    /**
+     * Returns the size of the buffer.
+     *
+     * @return The capacity in bytes.
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+}
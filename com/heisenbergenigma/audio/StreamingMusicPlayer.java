@@ -0,0 +1,383 @@
+package com.heisenbergenigma.audio;
+
+import com.heisenbergenigma.pack.AssetPack;
+import com.heisenbergenigma.pack.ByteBufferInputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.FloatControl;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The StreamingMusicPlayer class plays looping background music without loading the
+ * track into memory. A decoder thread reads the track into a small {@link RingBuffer}
+ * and a player thread feeds the buffer to a {@link SourceDataLine}. When the decoder
+ * reaches the end of the track it reopens it and carries on filling the same buffer,
+ * so the line never runs dry and the loop has no gap.
+ * <p>
+ * A track can be prefetched: its file and line are opened and its buffer filled
+ * ahead of time, so playing it later starts at once. Switching tracks can crossfade,
+ * ramping the volumes of the old and the new track while both play; the fade moves
+ * on each time {@link #tick()} is called.
+ * <p>
+ * Both threads of a track are daemons and everything that touches the file or the
+ * sound device happens on them. The player itself is meant to be driven by a single
+ * thread, normally the {@link AudioService}.
+ */
+public class StreamingMusicPlayer {
+    // Size of the buffer between the decoder and the player
+    public static final int RING_BYTES = 64 * 1024;
+    // Size of one read from the track and of one write to the line
+    private static final int CHUNK_BYTES = 8 * 1024;
+    // Audio the sound device buffers ahead, in milliseconds
+    private static final int LINE_BUFFER_MILLIS = 250;
+
+    private Track current;
+    private Track prefetched;
+    private Track fadingOut;
+    private long fadeStartedAt;
+    private long fadeNanos;
+
+    /**
+     * Starts looping the given track, stopping the one currently playing.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     */
+    public void play(String resourcePath) {
+        stop();
+        current = takeTrack(resourcePath);
+        current.start();
+    }
+
+    /**
+     * Starts looping the given track while fading out the one currently playing.
+     * Without a track playing, or without volume control on the sound device, the
+     * tracks are switched at once.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     * @param millis       The duration of the fade.
+     */
+    public void crossfade(String resourcePath, int millis) {
+        if (current == null || millis <= 0) {
+            play(resourcePath);
+            return;
+        }
+        if (fadingOut != null) {
+            fadingOut.stop();
+        }
+        fadingOut = current;
+        current = takeTrack(resourcePath);
+        current.setVolume(0f);
+        current.start();
+        fadeStartedAt = System.nanoTime();
+        fadeNanos = millis * 1_000_000L;
+        tick();
+    }
+
+    /**
+     * Opens the given track and fills its buffer without playing it, so a later
+     * {@link #play(String)} or {@link #crossfade(String, int)} of it starts at once.
+     * Only one track is kept prefetched.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     */
+    public void prefetch(String resourcePath) {
+        if (prefetched != null && prefetched.resourcePath.equals(resourcePath)) {
+            return;
+        }
+        if (prefetched != null) {
+            prefetched.stop();
+        }
+        prefetched = new Track(resourcePath);
+        prefetched.prepare();
+    }
+
+    /**
+     * Stops the music, if any is playing. A prefetched track is kept.
+     */
+    public void stop() {
+        if (fadingOut != null) {
+            fadingOut.stop();
+            fadingOut = null;
+        }
+        if (current != null) {
+            current.stop();
+            current = null;
+        }
+    }
+
+    /**
+     * Stops the music and releases the prefetched track.
+     */
+    public void close() {
+        stop();
+        if (prefetched != null) {
+            prefetched.stop();
+            prefetched = null;
+        }
+    }
+
+    /**
+     * Moves a running crossfade on to the current time, ending it once its duration
+     * has passed.
+     */
+    public void tick() {
+        if (fadingOut == null) {
+            return;
+        }
+        float progress = Math.min(1f, (System.nanoTime() - fadeStartedAt) / (float) fadeNanos);
+        if (progress >= 1f || !fadingOut.hasVolumeControl()) {
+            fadingOut.stop();
+            fadingOut = null;
+            current.setVolume(1f);
+            return;
+        }
+        fadingOut.setVolume(1f - progress);
+        current.setVolume(progress);
+    }
+
+    /**
+     * Checks whether a crossfade is running and {@link #tick()} should be called.
+     *
+     * @return boolean indicating if a fade is in progress.
+     */
+    public boolean isFading() {
+        return fadingOut != null;
+    }
+
+    /**
+     * Opens a line to the sound device for the given format. Every track is played
+     * through a line obtained here.
+     *
+     * @param format The format of the track.
+     * @param bufferBytes The size of the line's buffer in bytes.
+     * @return The opened line.
+     * @throws LineUnavailableException if the device cannot play the format.
+     */
+    protected SourceDataLine openLine(AudioFormat format, int bufferBytes) throws LineUnavailableException {
+        SourceDataLine line = AudioSystem.getSourceDataLine(format);
+        line.open(format, bufferBytes);
+        return line;
+    }
+
+    /**
+     * Returns the prefetched track if it is the given one, or prepares a new track.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     * @return A prepared track that has not been started.
+     */
+    private Track takeTrack(String resourcePath) {
+        if (prefetched != null && prefetched.resourcePath.equals(resourcePath)) {
+            Track track = prefetched;
+            prefetched = null;
+            return track;
+        }
+        Track track = new Track(resourcePath);
+        track.prepare();
+        return track;
+    }
+
+    /**
+     * Opens a track for decoding. A track in the shared {@link AssetPack} is read
+     * straight from its mapping, any other track from the classpath.
+     *
+     * @param resourcePath The classpath location of the WAV file.
+     * @return The decoded stream of the track.
+     * @throws IOException                   if the track cannot be read.
+     * @throws UnsupportedAudioFileException if the track is not a supported audio file.
+     */
+    private static AudioInputStream openTrack(String resourcePath) throws IOException, UnsupportedAudioFileException {
+        AssetPack pack = AssetPack.shared();
+        if (pack != null && pack.contains(resourcePath)) {
+            return AudioSystem.getAudioInputStream(new ByteBufferInputStream(pack.slice(resourcePath)));
+        }
+        InputStream resource = StreamingMusicPlayer.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (resource == null) {
+            throw new IOException("Can't find file: " + resourcePath);
+        }
+        // The WAV header is parsed with mark and reset, which needs a buffered stream
+        return AudioSystem.getAudioInputStream(new BufferedInputStream(resource, CHUNK_BYTES));
+    }
+
+    /**
+     * Converts a linear volume to a gain the line's control accepts.
+     *
+     * @param control The gain control of a line.
+     * @param volume  The volume, between 0 and 1.
+     * @return The gain in decibels.
+     */
+    private static float toGain(FloatControl control, float volume) {
+        float decibels = volume <= 0f ? control.getMinimum() : (float) (20 * Math.log10(volume));
+        return Math.max(control.getMinimum(), Math.min(control.getMaximum(), decibels));
+    }
+
+    /**
+     * The Track class holds the two threads and the buffer of one track.
+     */
+    private class Track {
+        private final String resourcePath;
+        private final RingBuffer ring = new RingBuffer(RING_BYTES);
+        // Released when the track should start playing
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile SourceDataLine line;
+        private volatile FloatControl gain;
+        private volatile float volume = 1f;
+        private volatile boolean stopped;
+
+        Track(String resourcePath) {
+            this.resourcePath = resourcePath;
+        }
+
+        /**
+         * Opens the track and its line and fills the buffer in the background.
+         */
+        void prepare() {
+            Thread.ofPlatform().daemon().name("music-player").start(this::play);
+        }
+
+        /**
+         * Lets a prepared track play.
+         */
+        void start() {
+            started.countDown();
+        }
+
+        void stop() {
+            stopped = true;
+            ring.close();
+            started.countDown();
+            SourceDataLine playing = line;
+            if (playing != null) {
+                // Silence the device now rather than after the buffered audio
+                playing.stop();
+                playing.flush();
+            }
+        }
+
+        void setVolume(float volume) {
+            this.volume = volume;
+            FloatControl control = gain;
+            if (control != null) {
+                control.setValue(toGain(control, volume));
+            }
+        }
+
+        boolean hasVolumeControl() {
+            return gain != null;
+        }
+
+        /**
+         * Opens the track and the line, starts the decoder, waits to be started and
+         * feeds the line until the track is stopped.
+         */
+        private void play() {
+            AudioInputStream stream;
+            try {
+                stream = openTrack(resourcePath);
+                AudioFormat format = stream.getFormat();
+                int frameSize = format.getFrameSize();
+                int lineBytes = (int) (format.getFrameRate() * LINE_BUFFER_MILLIS / 1000) * frameSize;
+                line = openLine(format, lineBytes);
+                if (line.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+                    gain = (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN);
+                    setVolume(volume);
+                }
+                if (stopped) {
+                    stream.close();
+                    return;
+                }
+                AudioInputStream first = stream;
+                Thread.ofPlatform().daemon().name("music-decoder").start(() -> decode(first));
+                started.await();
+                if (stopped) {
+                    return;
+                }
+                line.start();
+                drain(frameSize);
+            } catch (IOException | UnsupportedAudioFileException | LineUnavailableException
+                     | IllegalArgumentException e) {
+                ring.close();
+                System.err.println("Background music unavailable: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (line != null) {
+                    line.stop();
+                    line.flush();
+                    line.close();
+                }
+            }
+        }
+
+        /**
+         * Moves audio from the ring buffer to the line. The line only accepts whole
+         * frames, so a partial frame is kept until the rest of it arrives.
+         *
+         * @param frameSize The size of one frame in bytes.
+         */
+        private void drain(int frameSize) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            int pending = 0;
+            try {
+                while (true) {
+                    int read = ring.read(chunk, pending, chunk.length - pending);
+                    if (read < 0) {
+                        return;
+                    }
+                    int total = pending + read;
+                    int whole = total - total % frameSize;
+                    line.write(chunk, 0, whole);
+                    pending = total - whole;
+                    System.arraycopy(chunk, whole, chunk, 0, pending);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Reads the track into the ring buffer over and over until the track is stopped.
+         *
+         * @param stream The track, already opened by the player thread.
+         */
+        private void decode(AudioInputStream stream) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            try {
+                while (!stopped) {
+                    int read = stream.read(chunk, 0, chunk.length);
+                    if (read < 0) {
+                        // End of the track: start over in the same buffer for a gapless loop
+                        stream.close();
+                        stream = openTrack(resourcePath);
+                        continue;
+                    }
+                    for (int off = 0; off < read; ) {
+                        int written = ring.write(chunk, off, read - off);
+                        if (written < 0) {
+                            return;
+                        }
+                        off += written;
+                    }
+                }
+            } catch (IOException | UnsupportedAudioFileException e) {
+                ring.close();
+                System.err.println("Background music stopped: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
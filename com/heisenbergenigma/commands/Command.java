@@ -0,0 +1,21 @@
+package com.heisenbergenigma.commands;
+
+import com.heisenbergenigma.player.Player;
+
+/**
+ * The Command interface is implemented by the actions a player runs on a turn of a
+ * level by typing their verb, such as moving or opening the inventory. Locations
+ * register their commands in a {@link CommandRegistry}.
+ */
+@FunctionalInterface
+public interface Command {
+
+    /**
+     * Runs the command for the player who typed it.
+     *
+     * @param player   The player taking the turn.
+     * @param argument The text typed after the verb, or an empty string if there is none.
+     */
+    void execute(Player player, String argument);
+
+}
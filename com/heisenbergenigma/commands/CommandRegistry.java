@@ -0,0 +1,224 @@
+package com.heisenbergenigma.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The CommandRegistry class maps the verbs a player can type to the commands they
+ * run. Levels and puzzles register their own verbs, so a new verb needs no change
+ * to the code that reads input.
+ * <p>
+ * The verbs are kept in a trie laid out in flat arrays, one slot per node. Looking a
+ * verb up walks the characters of the input once, ignoring their case, straight from
+ * the input buffer or a String, and allocates nothing.
+ * <p>
+ * A line is a verb, optionally followed by whitespace and an argument. Only verbs
+ * registered with {@link #registerWithArgument(String, Object)} accept an argument.
+ *
+ * @param <C> The type of the commands.
+ */
+public class CommandRegistry<C> {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    // The trie: the character leading to each node, its first child, its next
+    // sibling and the index of the command whose verb ends at it
+    private char[] labels = new char[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int[] commandAt = new int[16];
+    private int nodes;
+
+    private final List<String> verbs = new ArrayList<>();
+    private final List<C> commands = new ArrayList<>();
+    private boolean[] takesArgument = new boolean[8];
+
+    /**
+     * Constructs an empty CommandRegistry.
+     */
+    public CommandRegistry() {
+        addNode('\0');
+    }
+
+    /**
+     * Registers a verb that takes no argument.
+     *
+     * @param verb    The verb, printable ASCII without whitespace. Case is ignored.
+     * @param command The command the verb runs.
+     * @throws IllegalArgumentException if the verb is malformed or already registered.
+     */
+    public void register(String verb, C command) {
+        add(verb, command, false);
+    }
+
+    /**
+     * Registers a verb that may be followed by an argument, such as the name of a room.
+     *
+     * @param verb    The verb, printable ASCII without whitespace. Case is ignored.
+     * @param command The command the verb runs.
+     * @throws IllegalArgumentException if the verb is malformed or already registered.
+     */
+    public void registerWithArgument(String verb, C command) {
+        add(verb, command, true);
+    }
+
+    private void add(String verb, C command, boolean argument) {
+        if (verb.isEmpty()) {
+            throw new IllegalArgumentException("A verb can't be empty");
+        }
+        int node = ROOT;
+        for (int i = 0; i < verb.length(); i++) {
+            char c = verb.charAt(i);
+            if (c <= ' ' || c > '~') {
+                throw new IllegalArgumentException("A verb must be printable ASCII without whitespace: " + verb);
+            }
+            c = lowerCase(c);
+            int next = child(node, c);
+            if (next == NONE) {
+                next = addNode(c);
+                nextSibling[next] = firstChild[node];
+                firstChild[node] = next;
+            }
+            node = next;
+        }
+        if (commandAt[node] != NONE) {
+            throw new IllegalArgumentException("Verb already registered: " + verb);
+        }
+        int index = commands.size();
+        commandAt[node] = index;
+        verbs.add(verb);
+        commands.add(command);
+        if (index == takesArgument.length) {
+            takesArgument = Arrays.copyOf(takesArgument, index * 2);
+        }
+        takesArgument[index] = argument;
+    }
+
+    /**
+     * Finds the verb spelled by a range of ASCII bytes.
+     *
+     * @param bytes The bytes holding the verb.
+     * @param from  The index of the verb's first byte.
+     * @param to    The index after the verb's last byte.
+     * @return The index of the verb's command, or -1 if no such verb is registered.
+     */
+    public int indexOf(byte[] bytes, int from, int to) {
+        int node = ROOT;
+        for (int i = from; i < to && node != NONE; i++) {
+            node = child(node, lowerCase((char) (bytes[i] & 0xFF)));
+        }
+        return node == NONE ? NONE : commandAt[node];
+    }
+
+    /**
+     * Finds the verb spelled by a range of characters.
+     *
+     * @param text The characters holding the verb.
+     * @param from The index of the verb's first character.
+     * @param to   The index after the verb's last character.
+     * @return The index of the verb's command, or -1 if no such verb is registered.
+     */
+    public int indexOf(CharSequence text, int from, int to) {
+        int node = ROOT;
+        for (int i = from; i < to && node != NONE; i++) {
+            node = child(node, lowerCase(text.charAt(i)));
+        }
+        return node == NONE ? NONE : commandAt[node];
+    }
+
+    /**
+     * Finds the command a whole line asks for, ignoring whitespace around it. A line
+     * with an argument only matches a verb that takes one; the argument itself is
+     * left to the caller.
+     *
+     * @param line The line the player typed.
+     * @return The command, or null if the line names none.
+     */
+    public C match(CharSequence line) {
+        int from = 0;
+        int to = line.length();
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        int verbEnd = from;
+        while (verbEnd < to && line.charAt(verbEnd) > ' ') {
+            verbEnd++;
+        }
+        int index = indexOf(line, from, verbEnd);
+        if (index == NONE || (verbEnd < to && !takesArgument[index])) {
+            return null;
+        }
+        return commands.get(index);
+    }
+
+    /**
+     * Returns a registered command.
+     *
+     * @param index The index returned by a lookup.
+     * @return The command.
+     */
+    public C get(int index) {
+        return commands.get(index);
+    }
+
+    /**
+     * Checks whether a registered verb accepts an argument.
+     *
+     * @param index The index returned by a lookup.
+     * @return boolean indicating if the verb may be followed by an argument.
+     */
+    public boolean takesArgument(int index) {
+        return takesArgument[index];
+    }
+
+    /**
+     * Returns a registered verb, as it was registered.
+     *
+     * @param index The index returned by a lookup.
+     * @return The verb.
+     */
+    public String getVerb(int index) {
+        return verbs.get(index);
+    }
+
+    /**
+     * Returns the number of registered verbs.
+     *
+     * @return The number of verbs.
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    private int child(int node, char c) {
+        for (int next = firstChild[node]; next != NONE; next = nextSibling[next]) {
+            if (labels[next] == c) {
+                return next;
+            }
+        }
+        return NONE;
+    }
+
+    private int addNode(char label) {
+        if (nodes == labels.length) {
+            int capacity = nodes * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            commandAt = Arrays.copyOf(commandAt, capacity);
+        }
+        labels[nodes] = label;
+        firstChild[nodes] = NONE;
+        nextSibling[nodes] = NONE;
+        commandAt[nodes] = NONE;
+        return nodes++;
+    }
+
+    private static char lowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
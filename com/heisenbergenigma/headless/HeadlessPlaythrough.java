@@ -0,0 +1,232 @@
+package com.heisenbergenigma.headless;
+
+import com.heisenbergenigma.locations.CarWash;
+import com.heisenbergenigma.locations.SaulGoodmansOffice;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.OutputSink;
+import com.heisenbergenigma.ui.UiManager;
+import com.heisenbergenigma.utils.GameUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The HeadlessPlaythrough class plays Levels 1 and 2 from a script of commands with
+ * no terminal and no audio, as fast as the CPU allows. The commands are fed through
+ * a {@link ScriptedInputStream} and everything the game prints is captured in memory,
+ * so the measurement covers the turn loop itself.
+ * <p>
+ * It reports playthroughs per second and the latency of each command, which makes it
+ * the basis for capacity planning and for spotting regressions in the turn loop.
+ * Run it with {@code java com.heisenbergenigma.headless.HeadlessPlaythrough [iterations] [script] [ansi]}.
+ * Passing {@code ansi} renders as for an ANSI terminal, the way remote players are served.
+ */
+public class HeadlessPlaythrough {
+    public static final String DEFAULT_SCRIPT = "com/heisenbergenigma/assets/playthrough.txt";
+    private static final int DEFAULT_ITERATIONS = 20_000;
+
+    private final List<String> script;
+    private final ScriptedInputStream input;
+    private final ByteArrayOutputStream sink;
+    private final GameConsole console;
+    private long outputBytes;
+
+    /**
+     * Constructs a HeadlessPlaythrough for the given script.
+     *
+     * @param script       The commands of one playthrough.
+     * @param playthroughs The number of playthroughs whose command latencies should be recorded.
+     */
+    public HeadlessPlaythrough(List<String> script, int playthroughs) {
+        this(script, playthroughs, false);
+    }
+
+    /**
+     * Constructs a HeadlessPlaythrough for the given script.
+     *
+     * @param script       The commands of one playthrough.
+     * @param playthroughs The number of playthroughs whose command latencies should be recorded.
+     * @param ansi         boolean indicating whether to render as for an ANSI terminal.
+     */
+    public HeadlessPlaythrough(List<String> script, int playthroughs, boolean ansi) {
+        this.script = script;
+        this.input = new ScriptedInputStream(script, script.size() * playthroughs);
+        this.sink = new ByteArrayOutputStream(256 * 1024);
+        this.console = new GameConsole(input, OutputSink.of(sink), ansi);
+    }
+
+    /**
+     * Plays Levels 1 and 2 once from the start of the script.
+     *
+     * @throws IllegalStateException if the script does not finish both levels exactly.
+     */
+    public void play() {
+        input.rewind();
+        sink.reset();
+        GameConsole.bind(console);
+        try {
+            GameState gameState = new GameState();
+            Player player = new Player("Headless");
+            UiManager uiManager = new UiManager(null);
+            new CarWash(gameState).beginLevelOne(player, uiManager);
+            new SaulGoodmansOffice(gameState).BeginLevelTwo(player, uiManager);
+            input.finish();
+        } catch (NoSuchElementException e) {
+            throw new IllegalStateException("The script ran out after " + input.getCommandsPlayed()
+                    + " commands before both levels were finished:\n" + outputTail(), e);
+        } finally {
+            GameConsole.flush();
+            GameConsole.unbind();
+        }
+        if (!input.isExhausted()) {
+            throw new IllegalStateException("Both levels were finished after " + input.getCommandsPlayed()
+                    + " of " + script.size() + " commands");
+        }
+        outputBytes += sink.size();
+    }
+
+    /**
+     * Plays the script repeatedly and measures the throughput and command latencies.
+     *
+     * @param warmups    The playthroughs run before measuring, to let the JIT settle.
+     * @param iterations The playthroughs to measure.
+     * @return The measurements of the measured playthroughs.
+     */
+    public Report run(int warmups, int iterations) {
+        for (int i = 0; i < warmups; i++) {
+            play();
+        }
+        input.clearLatencies();
+        outputBytes = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            play();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Report(iterations, elapsed, script.size(), outputBytes / iterations, input.getLatencies());
+    }
+
+    private String outputTail() {
+        String output = sink.toString(StandardCharsets.UTF_8);
+        return output.substring(Math.max(0, output.length() - 2000));
+    }
+
+    /**
+     * Loads a script from a file, or from the classpath when no such file exists.
+     * Blank lines and lines starting with '#' are skipped.
+     *
+     * @param location The file path or classpath resource of the script.
+     * @return The commands of the script.
+     * @throws IOException if the script cannot be read.
+     */
+    public static List<String> loadScript(String location) throws IOException {
+        Path file = Path.of(location);
+        InputStream stream = Files.exists(file)
+                ? Files.newInputStream(file)
+                : HeadlessPlaythrough.class.getClassLoader().getResourceAsStream(location);
+        if (stream == null) {
+            throw new IOException("Can't find script: " + location);
+        }
+        List<String> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    commands.add(line);
+                }
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * The Report class holds the measurements of a headless run.
+     */
+    public static class Report {
+        private final int playthroughs;
+        private final long elapsedNanos;
+        private final int commandsPerPlaythrough;
+        private final long outputBytesPerPlaythrough;
+        private final long[] sortedLatencies;
+
+        Report(int playthroughs, long elapsedNanos, int commandsPerPlaythrough,
+               long outputBytesPerPlaythrough, long[] latencies) {
+            this.playthroughs = playthroughs;
+            this.elapsedNanos = elapsedNanos;
+            this.commandsPerPlaythrough = commandsPerPlaythrough;
+            this.outputBytesPerPlaythrough = outputBytesPerPlaythrough;
+            this.sortedLatencies = latencies;
+            Arrays.sort(this.sortedLatencies);
+        }
+
+        public double playthroughsPerSecond() {
+            return playthroughs / (elapsedNanos / 1e9);
+        }
+
+        public long outputBytesPerPlaythrough() {
+            return outputBytesPerPlaythrough;
+        }
+
+        /**
+         * Returns a command latency percentile.
+         *
+         * @param percentile The percentile, between 0 and 100.
+         * @return The latency in nanoseconds.
+         */
+        public long latencyPercentile(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0L;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        public double meanLatency() {
+            return sortedLatencies.length == 0 ? 0.0 : Arrays.stream(sortedLatencies).average().orElse(0.0);
+        }
+
+        /**
+         * Prints the report to the given stream.
+         *
+         * @param out The stream to print to.
+         */
+        public void print(PrintStream out) {
+            out.println("Playthroughs:               " + playthroughs);
+            out.println("Commands per playthrough:   " + commandsPerPlaythrough);
+            out.printf("Playthroughs per second:    %.1f%n", playthroughsPerSecond());
+            out.printf("Commands per second:        %.1f%n", playthroughsPerSecond() * commandsPerPlaythrough);
+            out.println("Output bytes / playthrough: " + outputBytesPerPlaythrough);
+            out.printf("Command latency (us):       mean %.2f  p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                    meanLatency() / 1e3, latencyPercentile(50) / 1e3, latencyPercentile(90) / 1e3,
+                    latencyPercentile(99) / 1e3, latencyPercentile(100) / 1e3);
+        }
+    }
+
+    /**
+     * Runs the headless playthrough benchmark and prints its report.
+     *
+     * @param args optional number of measured playthroughs, script location and "ansi".
+     * @throws IOException if the script cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        List<String> script = loadScript(args.length > 1 ? args[1] : DEFAULT_SCRIPT);
+        GameUtils.setAudioEnabled(false);
+        boolean ansi = args.length > 2 && "ansi".equalsIgnoreCase(args[2]);
+        HeadlessPlaythrough engine = new HeadlessPlaythrough(script, iterations, ansi);
+        engine.run(Math.max(1, iterations / 5), iterations).print(System.out);
+    }
+}
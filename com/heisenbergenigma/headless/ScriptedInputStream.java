@@ -0,0 +1,147 @@
+package com.heisenbergenigma.headless;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ScriptedInputStream class plays a fixed list of commands to the game as if a
+ * player typed them. It hands out at most one line per read and never reports more
+ * input as available, so every reader the game creates receives exactly the line it
+ * asked for.
+ * <p>
+ * The time between handing out a line and the game asking for the next one is the
+ * time the game spent on that command. Those latencies are recorded into a
+ * preallocated array so that measuring does not allocate.
+ */
+public class ScriptedInputStream extends InputStream {
+    private final byte[][] lines;
+    private final long[] latencies;
+    private int recorded;
+    private int lineIndex;
+    private int offset;
+    private long lineStartedAt;
+
+    /**
+     * Constructs a ScriptedInputStream over the given commands.
+     *
+     * @param commands        The commands to play, one per line, without line terminators.
+     * @param latencyCapacity The maximum number of command latencies to record.
+     */
+    public ScriptedInputStream(List<String> commands, int latencyCapacity) {
+        this.lines = new byte[commands.size()][];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = (commands.get(i) + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+        this.latencies = new long[latencyCapacity];
+        this.lineIndex = -1;
+    }
+
+    /**
+     * Starts the script over from its first command, keeping the recorded latencies.
+     */
+    public void rewind() {
+        lineIndex = -1;
+        offset = 0;
+        lineStartedAt = 0L;
+    }
+
+    /**
+     * Records the latency of the command handed out last. Call it once the game has
+     * returned after the script's final command.
+     */
+    public void finish() {
+        recordLatency(System.nanoTime());
+        lineStartedAt = 0L;
+    }
+
+    /**
+     * Checks whether every command of the script has been handed out.
+     *
+     * @return boolean indicating if the script was played to the end.
+     */
+    public boolean isExhausted() {
+        return lineIndex == lines.length - 1 && offset == lines[lineIndex].length;
+    }
+
+    /**
+     * Returns the number of commands handed out since the last rewind.
+     *
+     * @return The number of commands played.
+     */
+    public int getCommandsPlayed() {
+        return lineIndex + 1;
+    }
+
+    /**
+     * Returns the command latencies recorded so far, in nanoseconds.
+     *
+     * @return A copy of the recorded latencies.
+     */
+    public long[] getLatencies() {
+        return Arrays.copyOf(latencies, recorded);
+    }
+
+    /**
+     * Discards every recorded latency, for example after a warm-up.
+     */
+    public void clearLatencies() {
+        recorded = 0;
+    }
+
+    @Override
+    public int read() {
+        if (!nextLineIfNeeded()) {
+            return -1;
+        }
+        return lines[lineIndex][offset++];
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextLineIfNeeded()) {
+            return -1;
+        }
+        byte[] line = lines[lineIndex];
+        int count = Math.min(len, line.length - offset);
+        System.arraycopy(line, offset, buffer, off, count);
+        offset += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        // Never invite a reader to buffer past the line it is reading
+        return 0;
+    }
+
+    /**
+     * Moves on to the next command once the current one has been read completely.
+     *
+     * @return boolean indicating if there is input left to read.
+     */
+    private boolean nextLineIfNeeded() {
+        if (lineIndex >= 0 && offset < lines[lineIndex].length) {
+            return true;
+        }
+        if (lineIndex + 1 >= lines.length) {
+            return false;
+        }
+        long now = System.nanoTime();
+        recordLatency(now);
+        lineIndex++;
+        offset = 0;
+        lineStartedAt = now;
+        return true;
+    }
+
+    private void recordLatency(long now) {
+        if (lineStartedAt != 0L && recorded < latencies.length) {
+            latencies[recorded++] = now - lineStartedAt;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.heisenbergenigma.interfaces;
+
+import com.heisenbergenigma.player.Player;
+
+/**
+ * The CellContent interface is implemented by everything that can stand on a cell
+ * of a location, such as NPCs and puzzles. A location calls {@link #visit(Player)} on
+ * the content of the player's cell every turn and each kind of content decides what
+ * that means, so the location never has to ask which kind it holds.
+ * <p>
+ * Cells without content hold {@link #NONE}, whose visit does nothing.
+ * <p>
+ * Content that still has something to show asks for the player's attention, which
+ * stops a line of several commands on its cell.
+ */
+public interface CellContent {
+
+    /**
+     * The content of an empty cell.
+     */
+    CellContent NONE = new CellContent() {
+        @Override
+        public void visit(Player player) {
+        }
+
+        @Override
+        public boolean wantsAttention() {
+            return false;
+        }
+    };
+
+    /**
+     * Executes the turn of a player standing on the cell holding this content.
+     *
+     * @param player The player standing on the cell.
+     */
+    void visit(Player player);
+
+    /**
+     * Checks whether visiting this content would do something, such as an NPC who
+     * has not spoken yet or a puzzle that is not solved.
+     *
+     * @return boolean indicating if the player should stop on the cell.
+     */
+    default boolean wantsAttention() {
+        return true;
+    }
+
+}
@@ -3,26 +3,40 @@ package com.heisenbergenigma.items;
 /**
  * The Item class represents a general item with a name and a description.
  * It provides methods to retrieve the item's name and description.
+ * <p>
+ * Items are immutable and shared by every player: each one is created once by the
+ * {@link ItemCatalog} and players hold its id.
  */
 public class Item {
+    // Id of the item in the catalog
+    private final int id;
     // Name of the item
-
-    private String name;
+    private final String name;
     // Description of the item
-
-    private String description;
+    private final String description;
 
     /**
-     * Constructs a new Item with the specified name and description.
+     * Constructs a new Item with the specified id, name and description.
      *
+     * @param id          The id of the item in the catalog.
      * @param name        The name of the item.
      * @param description The description of the item.
      */
-    public Item(String name, String description) {
+    Item(int id, String name, String description) {
+        this.id = id;
         this.name = name;
         this.description = description;
     }
 
+    /**
+     * Returns the id of this item in the catalog.
+     *
+     * @return The id of the item.
+     */
+    public int getId() {
+        return this.id;
+    }
+
     /**
      * Returns the name of this item.
      *
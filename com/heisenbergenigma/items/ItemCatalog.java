@@ -0,0 +1,72 @@
+package com.heisenbergenigma.items;
+
+/**
+ * The ItemCatalog class holds every item a player can receive, each created once and
+ * shared by all players. Items are referred to by their id, which is also their index
+ * in the catalog, so an inventory or a save holds small numbers rather than the items'
+ * text.
+ * <p>
+ * Ids are stored in saves: new items are added at the end and existing ids are never
+ * reused. The catalog holds at most {@value #MAX_ITEMS} items, so an inventory fits
+ * one bit per item in a long.
+ */
+public final class ItemCatalog {
+    public static final int MAX_ITEMS = Long.SIZE;
+
+    public static final int CRYPTIC_NOTEBOOK = 0;
+    public static final int FADED_BUSINESS_CARD = 1;
+    public static final int MISSING_PAGE = 2;
+    // The missing page found once the notebook it belongs to is known
+    public static final int MATCHED_MISSING_PAGE = 3;
+    public static final int ENCRYPTED_USB_DRIVE = 4;
+    public static final int MYSTERIOUS_NOTE = 5;
+    public static final int GPS_DEVICE = 6;
+    public static final int COORDINATES_NOTE = 7;
+
+    private static final Item[] ITEMS = {
+            new Item(CRYPTIC_NOTEBOOK, "Cryptic Notebook", "A small notebook filled with obscure notes and coded messages. Some pages are missing."),
+            new Item(FADED_BUSINESS_CARD, "Faded Business Card", "An old business card, its edges frayed and colors faded. The name 'Saul Goodman, \nAttorney at Law' is just legible, along with a partially smudged phone number."),
+            new Item(MISSING_PAGE, "Missing Page", "A tattered page. It's filled with intricate details and a distinct address."),
+            new Item(MATCHED_MISSING_PAGE, "Missing Page", "A tattered page that seems to fit perfectly in the 'Cryptic Notebook'. It's filled with intricate details and a distinct address."),
+            new Item(ENCRYPTED_USB_DRIVE, "Encrypted USB Drive", "A small USB drive containing encrypted files."),
+            new Item(MYSTERIOUS_NOTE, "Mysterious Note", "A cryptic note found after decrypting the file.\n It reads: 'Amidst the sands of silence, the shadow of the lone cedar guards the key to blue alchemy.'"),
+            new Item(GPS_DEVICE, "GPS Device", "A sophisticated GPS device,"),
+            new Item(COORDINATES_NOTE, "Note", "34.0522° N, 106.2436° W"),
+    };
+
+    private ItemCatalog() {
+    }
+
+    /**
+     * Returns the item with the given id.
+     *
+     * @param id The id of the item.
+     * @return The shared item.
+     * @throws IllegalArgumentException if the catalog has no item with this id.
+     */
+    public static Item get(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Unknown item id " + id);
+        }
+        return ITEMS[id];
+    }
+
+    /**
+     * Tells whether the catalog has an item with the given id.
+     *
+     * @param id The id of the item.
+     * @return true if the id is one of the catalog's.
+     */
+    public static boolean contains(int id) {
+        return id >= 0 && id < ITEMS.length;
+    }
+
+    /**
+     * Returns the number of items in the catalog.
+     *
+     * @return The number of items, at most {@value #MAX_ITEMS}.
+     */
+    public static int size() {
+        return ITEMS.length;
+    }
+}
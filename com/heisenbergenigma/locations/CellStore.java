@@ -0,0 +1,192 @@
+package com.heisenbergenigma.locations;
+
+import com.heisenbergenigma.interfaces.CellContent;
+
+import java.util.Arrays;
+
+/**
+ * The CellStore class holds the description and the content of every cell of a
+ * location that has one. A cell is keyed by its row and column packed into one
+ * {@code int}, and the keys, descriptions and contents sit in parallel flat arrays
+ * addressed by an open-addressing hash of the key. Looking a cell up hashes two
+ * ints and reads a few array slots: it builds no key object and allocates nothing,
+ * and the store grows with the number of filled cells, not with the size of the level.
+ */
+public class CellStore {
+    // Marks a slot of the key array that holds no cell
+    private static final int FREE = -1;
+    // Largest row or column a packed key can hold
+    public static final int MAX_COORDINATE = 0x7FFF;
+
+    private int[] keys;
+    private String[] descriptions;
+    private CellContent[] contents;
+    // keys.length - 1, the table size being a power of two
+    private int mask;
+    private int size;
+
+    /**
+     * Constructs an empty CellStore.
+     *
+     * @param expectedCells The number of cells expected to be filled, to size the table.
+     */
+    public CellStore(int expectedCells) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(1, expectedCells) * 2 - 1) << 1));
+    }
+
+    /**
+     * Packs a row and a column into one key.
+     *
+     * @param row The row, between 0 and {@value #MAX_COORDINATE}.
+     * @param col The column, between 0 and {@value #MAX_COORDINATE}.
+     * @return The packed key.
+     */
+    public static int pack(int row, int col) {
+        return row << 16 | col;
+    }
+
+    /**
+     * Sets the description of a cell.
+     *
+     * @param row         The row of the cell.
+     * @param col         The column of the cell.
+     * @param description The description shown when the player enters the cell.
+     */
+    public void setDescription(int row, int col, String description) {
+        descriptions[slotFor(row, col)] = description;
+    }
+
+    /**
+     * Places content on a cell, replacing what was there.
+     *
+     * @param row     The row of the cell.
+     * @param col     The column of the cell.
+     * @param content The content of the cell.
+     */
+    public void setContent(int row, int col, CellContent content) {
+        contents[slotFor(row, col)] = content;
+    }
+
+    /**
+     * Finds the slot of a cell, for reading its description and content.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The slot of the cell, or -1 if the cell has neither a description nor content.
+     */
+    public int find(int row, int col) {
+        if ((row | col) < 0 || row > MAX_COORDINATE || col > MAX_COORDINATE) {
+            return -1;
+        }
+        int key = pack(row, col);
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int found = keys[slot];
+            if (found == key) {
+                return slot;
+            }
+            if (found == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the description in a slot.
+     *
+     * @param slot A slot returned by {@link #find(int, int)}.
+     * @return The description, or null if the cell only has content.
+     */
+    public String getDescription(int slot) {
+        return descriptions[slot];
+    }
+
+    /**
+     * Returns the content in a slot.
+     *
+     * @param slot A slot returned by {@link #find(int, int)}.
+     * @return The content, {@link CellContent#NONE} if the cell only has a description.
+     */
+    public CellContent getContent(int slot) {
+        CellContent content = contents[slot];
+        return content == null ? CellContent.NONE : content;
+    }
+
+    /**
+     * Returns the content of a cell.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The content, {@link CellContent#NONE} if the cell has none.
+     */
+    public CellContent getContent(int row, int col) {
+        int slot = find(row, col);
+        return slot < 0 ? CellContent.NONE : getContent(slot);
+    }
+
+    /**
+     * Returns the number of cells with a description or content.
+     *
+     * @return The number of filled cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of a cell, claiming a free one if the cell is new.
+     */
+    private int slotFor(int row, int col) {
+        if ((row | col) < 0 || row > MAX_COORDINATE || col > MAX_COORDINATE) {
+            throw new IndexOutOfBoundsException("Cell " + row + "," + col + " can't be stored");
+        }
+        int slot = find(row, col);
+        if (slot >= 0) {
+            return slot;
+        }
+        // Keep at least half of the table free so probe runs stay short
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int key = pack(row, col);
+        slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        String[] oldDescriptions = descriptions;
+        CellContent[] oldContents = contents;
+        allocate(oldKeys.length * 2);
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] == FREE) {
+                continue;
+            }
+            int slot = hash(oldKeys[old]) & mask;
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[old];
+            descriptions[slot] = oldDescriptions[old];
+            contents[slot] = oldContents[old];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        descriptions = new String[capacity];
+        contents = new CellContent[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key) {
+        // Spreads neighbouring cells over the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
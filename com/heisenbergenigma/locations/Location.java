@@ -1,66 +1,415 @@
 package com.heisenbergenigma.locations;
 
-import com.heisenbergenigma.puzzles.Puzzle;
+import com.heisenbergenigma.commands.Command;
+import com.heisenbergenigma.commands.CommandRegistry;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.puzzles.*;
 import com.heisenbergenigma.npcs.NPC;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.MapRenderer;
+import com.heisenbergenigma.ui.UiManager;
+import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.utils.Narrator;
+import com.heisenbergenigma.utils.SaveLoadManager;
+import com.heisenbergenigma.utils.SessionJournal;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.world.ChunkedGrid;
+import com.heisenbergenigma.world.LevelDefinition;
+import com.heisenbergenigma.world.WorldContent;
 
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
 
 /**
  * Abstract class Location serves as a base for different locations in the game.
  * It provides a structure for the layout of a location, interaction mechanisms,
- * and location-specific descriptions.
+ * and location-specific descriptions. The layout, NPCs, puzzles and texts of a
+ * location come from its {@link LevelDefinition} in the world content.
  */
 
 
 public abstract class Location {
-    // Matrix representing the layout of the location
+    // Prompt for the player's command on every turn, and the reply to a line that names none
+    protected static final String COMMAND_PROMPT = "Enter your move (gn, gs, ge, gw, goto <room>), 'inventory' to check items or 'exit': ";
+    protected static final String INVALID_COMMAND = "Invalid command. Please enter 'gn', 'gs', 'ge', 'gw', 'goto <room>', 'inventory' or 'exit'.";
+    // Told to a player whose line of commands stopped early on a cell that wants their attention
+    protected static final String COMMANDS_CANCELLED = "The rest of the commands on your line were cancelled.";
 
-    protected Object[][] matrix;
-    // Map storing descriptions for different parts of the location
+    // Descriptions, NPCs and puzzles of the cells of the location, keyed by packed coordinates
 
-    protected Map<String, String> locationDescriptions;
+    protected CellStore cells;
+    // Map of this location, drawn at the start of every turn
 
+    protected MapRenderer mapRenderer;
+    // Rooms of this location by name, for walking to one with a single command
+
+    protected final RoomIndex rooms;
+    // Verbs the player can type on a turn, levels may register more of their own
+
+    protected final CommandRegistry<Command> commands = new CommandRegistry<>();
+    // State of the playthrough this location belongs to
+
+    protected final GameState gameState;
+    // Content of the level played at this location
+
+    protected final LevelDefinition level;
+    // Puzzles of the level in world content order, the order their solved state is saved in
+
+    private final Puzzle[] puzzles;
+    // NPCs of the level in world content order, the order their spoken state is saved in
+
+    private final NPC[] npcs;
+    // Journal of the game, which saves the player's progress every so many lines, null when it isn't saved
+
+    private SessionJournal journal;
+    // Whether the progress was saved since the level began
+
+    private boolean snapshotTaken;
+    // Packed cell a loaded game resumes the level on, -1 to start at the entrance
+
+    private int resumeCell = -1;
+
+
+    /**
+     * Constructs a Location from its definition in the world content, placing the
+     * descriptions, NPCs and puzzles of the level in its cell store and rendering its map.
+     *
+     * @param level     The definition of the level played at this location.
+     * @param gameState The state of the playthrough this location belongs to.
+     */
+    public Location(LevelDefinition level, GameState gameState) {
+        this.level = level;
+        this.gameState = gameState;
+        ChunkedGrid<String> descriptions = level.getDescriptions();
+        this.cells = new CellStore(descriptions.size() + level.getNpcs().size() + level.getPuzzles().size());
+        //Adding the description of every described part of the location
+        descriptions.forEach(cells::setDescription);
+        //Drawing the area of the map around the player at the start of every turn
+        this.mapRenderer = new MapRenderer(level.getLabels());
+        //Indexing the rooms by name so the player can walk to them
+        this.rooms = new RoomIndex(level.getLabels());
+        //Adding NPCs in specific locations with their respective names and speeches
+        this.npcs = new NPC[level.getNpcs().size()];
+        for (int i = 0; i < npcs.length; i++) {
+            LevelDefinition.NpcPlacement npc = level.getNpcs().get(i);
+            npcs[i] = new NPC(npc.getName(),
+                    GameUtils.ANSI_YELLOW + "\"" + npc.getLine() + "\"" + GameUtils.ANSI_RESET, gameState);
+            cells.setContent(npc.getRow(), npc.getCol(), npcs[i]);
+        }
+        //Adding Puzzles in specific locations
+        this.puzzles = new Puzzle[level.getPuzzles().size()];
+        for (int i = 0; i < puzzles.length; i++) {
+            LevelDefinition.PuzzlePlacement puzzle = level.getPuzzles().get(i);
+            puzzles[i] = createPuzzle(puzzle, gameState);
+            cells.setContent(puzzle.getRow(), puzzle.getCol(), puzzles[i]);
+        }
+        //Registering the commands every level understands
+        commands.register("gn", (player, argument) -> player.move(-1, 0));
+        commands.register("gs", (player, argument) -> player.move(1, 0));
+        commands.register("ge", (player, argument) -> player.move(0, 1));
+        commands.register("gw", (player, argument) -> player.move(0, -1));
+        commands.registerWithArgument("goto", this::goTo);
+        commands.register("inventory", (player, argument) -> player.showInventory());
+        commands.register("exit", (player, argument) -> GameUtils.exitGame());
+    }
 
     /**
-     * Constructs a Location with an empty 3x3 matrix and initializes
-     * location descriptions.
+     * Creates the puzzle a placement in the world content names.
+     *
+     * @param placement The puzzle placement.
+     * @param gameState The state of the playthrough the puzzle belongs to.
+     * @return The puzzle.
+     * @throws IllegalArgumentException if the type is unknown or its parameters don't fit it.
      */
-    public Location() {
-        this.matrix = new Object[3][3];
-        this.locationDescriptions = new HashMap<>();
-        initializeLocationDescriptions();
+    protected static Puzzle createPuzzle(LevelDefinition.PuzzlePlacement placement, GameState gameState) {
+        List<List<String>> params = placement.getParams();
+        switch (placement.getType()) {
+            case "LPDecoding":
+                return new LPDecodingPuzzle(gameState);
+            case "PinCode":
+                return new PinCodePuzzle(gameState);
+            case "Decryption":
+                return new DecryptionPuzzle(gameState);
+            case "HiddenCode":
+                return new HiddenCodePuzzle(gameState);
+            case "QA":
+                QAPuzzle qaPuzzle = new QAPuzzle(gameState);
+                //Every parameter is a question, its multiple choices and its correct answer
+                for (List<String> question : params) {
+                    if (question.size() < 3) {
+                        throw new IllegalArgumentException("A QA question needs a query, choices and an answer: " + question);
+                    }
+                    qaPuzzle.addQuestion(question.get(0), question.subList(1, question.size() - 1), question.get(question.size() - 1));
+                }
+                return qaPuzzle;
+            case "JumbledWords":
+                if (params.size() != 1 || params.get(0).size() != 3) {
+                    throw new IllegalArgumentException("A JumbledWords puzzle needs a jumbled word, its answer and a hint");
+                }
+                List<String> word = params.get(0);
+                return new JumbledWordsPuzzle(word.get(0), word.get(1), word.get(2), gameState);
+            default:
+                throw new IllegalArgumentException("Unknown puzzle type: " + placement.getType());
+        }
     }
 
     /**
-     * Abstract method to initialize location-specific descriptions.
-     * Implementing classes must provide the descriptions for their respective locations.
+     * Returns the id of the level played at this location.
+     *
+     * @return The level id in the world content.
      */
-    protected abstract void initializeLocationDescriptions();
+    public String getLevelId() {
+        return level.getId();
+    }
 
     /**
-     * Interacts with the current cell based on the player's position.
-     * It displays the description of the location and triggers interaction
-     * with any NPC or Puzzle present in the cell.
+     * Saves the player's progress through the game's journal from now on: at the first
+     * turn of the level and then whenever the journal has recorded enough lines, so a
+     * game left at any point can be loaded again.
      *
-     * @param posX The X coordinate of the player's position.
-     * @param posY The Y coordinate of the player's position.
+     * @param journal The journal of the game.
+     * @throws IllegalStateException if the level has more puzzles or NPCs than a save can hold.
      */
-    protected void interactWithCurrentCell(int posX, int posY) {
-        String key = posX + "," + posY;
-        String description = locationDescriptions.getOrDefault(key, "You are in an unmarked area.");
-        System.out.println(description);
-
-        Object cellContent = matrix[posX][posY];
-        if (cellContent instanceof NPC) {
-            ((NPC) cellContent).interact();
-        } else if (cellContent instanceof Puzzle) {
-            Puzzle puzzle = (Puzzle) cellContent;
-            if (!puzzle.isSolved()) {
-                ((Puzzle) cellContent).solvePuzzle();
+    public void enableAutosave(SessionJournal journal) {
+        if (puzzles.length > Long.SIZE || npcs.length > Long.SIZE) {
+            throw new IllegalStateException("A save holds at most " + Long.SIZE + " puzzles and NPCs per level, "
+                    + level.getId() + " has " + puzzles.length + " and " + npcs.length);
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Captures the progress of a player in this level.
+     *
+     * @param player The player.
+     * @return The progress, ready to be saved.
+     */
+    public SaveLoadManager.SaveGame snapshot(Player player) {
+        long solvedPuzzles = 0L;
+        for (int i = 0; i < puzzles.length && i < Long.SIZE; i++) {
+            if (puzzles[i].isSolved()) {
+                solvedPuzzles |= 1L << i;
+            }
+        }
+        long metNpcs = 0L;
+        for (int i = 0; i < npcs.length && i < Long.SIZE; i++) {
+            if (npcs[i].hasInteracted()) {
+                metNpcs |= 1L << i;
             }
         }
+        return new SaveLoadManager.SaveGame(player.getName(), player.getPlayerId(), level.getId(),
+                player.getPlayerPosX(), player.getPlayerPosY(), gameState.getFlags(), solvedPuzzles,
+                metNpcs, 0L, player.getInventoryManager().getItemIds());
+    }
+
+    /**
+     * Restores the solved puzzles and the NPCs met of a saved game, and has the level start on the
+     * cell the player saved on instead of its entrance.
+     *
+     * @param save A game saved in this level.
+     * @throws IllegalArgumentException if the game was saved in another level.
+     */
+    public void restore(SaveLoadManager.SaveGame save) {
+        if (!level.getId().equals(save.getLevelId())) {
+            throw new IllegalArgumentException("The game was saved in " + save.getLevelId() + ", not " + level.getId());
+        }
+        for (int i = 0; i < puzzles.length && i < Long.SIZE; i++) {
+            puzzles[i].setSolved((save.getSolvedPuzzles() & 1L << i) != 0);
+        }
+        for (int i = 0; i < npcs.length && i < Long.SIZE; i++) {
+            npcs[i].setInteracted((save.getMetNpcs() & 1L << i) != 0);
+        }
+        if (level.getLabels().contains(save.getRow(), save.getCol())) {
+            resumeCell = CellStore.pack(save.getRow(), save.getCol());
+        }
+    }
+
+    /**
+     * Places the player at the start of the level, or on the cell a loaded game was
+     * saved on, shows the title and the greeting
+     * of the level and fades into its music, prefetching the music of the level after it.
+     * Commands the player queued in the previous level are dropped.
+     * <p>
+     * A new level then asks the player whether to proceed. A resumed one doesn't, since
+     * the player answered before the game was saved.
+     *
+     * @param player    The player entering the level.
+     * @param uiManager The UI manager reading the player's commands.
+     */
+    protected void introduceLevel(Player player, UiManager uiManager) {
+        uiManager.cancelQueuedCommands();
+        //Letting the player move across the whole level, starting at its entrance or where they saved
+        boolean resuming = resumeCell >= 0;
+        if (resuming) {
+            player.enterArea(level.getRows(), level.getCols(), resumeCell >>> 16, resumeCell & 0xFFFF);
+            resumeCell = -1;
+        } else {
+            player.enterArea(level.getRows(), level.getCols(), level.getStartRow(), level.getStartCol());
+        }
+        //Fading from the previous background music into this level's
+        GameUtils.crossfadeBackgroundMusic(level.getMusicPath());
+        //Loading the next level's music while this level is played
+        if (level.getNextLevelId() != null) {
+            GameUtils.prefetchBackgroundMusic(WorldContent.shared().getMusicPath(level.getNextLevelId()));
+        }
+        Narrator.narrate("\n" + level.getTitle() + "\n");
+        Narrator.narrate(level.getIntro(player.getName()));
+        //asking the user to enter yes or no to continue playing
+        if (!resuming) {
+            GameUtils.promptToProceed();
+        }
+    }
+
+    /**
+     * Tells the player the level is complete and where its exit is.
+     */
+    protected void narrateCompletion() {
+        Narrator.narrate(level.getCompletion());
+        Narrator.narrate(GameUtils.ANSI_GREEN + level.getObjective() + GameUtils.ANSI_RESET);
+    }
+
+    /**
+     * Plays one turn of the level loop: draws the map, tells the player where they
+     * are and lets the content of their cell take its turn, then runs the command
+     * the player types.
+     * <p>
+     * When the player typed several commands on one line, the turns that follow run
+     * them one by one without drawing anything, so only the cell the line ends on is
+     * shown. A cell whose NPC or puzzle wants the player's attention ends the line
+     * early, telling the player so, and is played as a normal turn. Once the game has warmed up a turn allocates nothing beyond the
+     * player's input line, see {@code com.heisenbergenigma.bench.TurnAllocationCheck} in the benchmarks module.
+     *
+     * @param player        The player taking the turn.
+     * @param uiManager     The UI manager, used to read the player's move.
+     * @param levelComplete boolean indicating if the level is complete, so its exit is pointed out.
+     */
+    public void playTurn(Player player, UiManager uiManager, boolean levelComplete) {
+        //running the next of several commands typed on one line, without drawing the cells passed on the way
+        boolean cancelled = false;
+        if (uiManager.hasQueuedCommands()) {
+            if (!cells.getContent(player.getPlayerPosX(), player.getPlayerPosY()).wantsAttention()) {
+                runCommand(player, uiManager);
+                return;
+            }
+            //an NPC or puzzle on the way stops the commands left on the line
+            uiManager.cancelQueuedCommands();
+            cancelled = true;
+        }
+        //saving the progress when it is due, the journal records the turns in between
+        if (journal != null) {
+            checkpoint(player);
+        }
+        //printing a virtual map of the locations and the current position of the player
+        mapRenderer.draw(player.getPlayerPosX(), player.getPlayerPosY());
+        //checking if the player finished all puzzles so give him hints to pass to the next level
+        if (levelComplete) {
+            narrateCompletion();
+        }
+        //printing current position of the player
+        player.printCurrentPosition();
+        //check if there is an interaction with cell based on the player position
+        interactWithCurrentCell(player);
+        if (cancelled) {
+            GameConsole.out().println(COMMANDS_CANCELLED);
+        }
+        //ask the player to enter his commands, such as moves, and run the first
+        runCommand(player, uiManager);
+    }
+
+    /**
+     * Hands the journal a snapshot of the player's progress on the first turn of the
+     * level and whenever one is due. A journal that failed to write is reported once
+     * and the level goes on without saving.
+     *
+     * @param player The player taking the turn.
+     */
+    private void checkpoint(Player player) {
+        IOException failure = journal.takeFailure();
+        if (failure != null) {
+            GameConsole.out().println("Your progress could not be saved: " + failure.getMessage());
+            journal = null;
+            return;
+        }
+        if (!snapshotTaken || journal.isSnapshotDue()) {
+            journal.snapshot(snapshot(player));
+            snapshotTaken = true;
+        }
+    }
+
+    /**
+     * Runs the player's next command, reading a new line of commands if none is left.
+     *
+     * @param player    The player taking the turn.
+     * @param uiManager The UI manager, used to read the player's commands.
+     */
+    private void runCommand(Player player, UiManager uiManager) {
+        Command command = uiManager.readCommand(commands, COMMAND_PROMPT, INVALID_COMMAND);
+        command.execute(player, uiManager.getCommandArgument());
+    }
+
+    /**
+     * Walks the player to the room they name, by the shortest way across the grid,
+     * without drawing the cells passed on the way. Like a line of several moves, the
+     * walk stops early on a cell whose NPC or puzzle wants the player's attention.
+     *
+     * @param player   The player walking.
+     * @param roomName The name of the room, or the start of it.
+     */
+    private void goTo(Player player, String roomName) {
+        PrintStream out = GameConsole.out();
+        if (roomName.isBlank()) {
+            out.println("Where to? Type 'goto' followed by the name of a room on the map.");
+            return;
+        }
+        int room = rooms.lookup(roomName);
+        if (room == RoomIndex.NOT_FOUND) {
+            out.println("There is no room called '" + roomName.trim() + "' here.");
+            return;
+        }
+        if (room == RoomIndex.AMBIGUOUS) {
+            out.println("Which room do you mean: " + String.join(", ", rooms.matches(roomName)) + "?");
+            return;
+        }
+        int target = rooms.nearestCell(room, player.getPlayerPosX(), player.getPlayerPosY());
+        int targetRow = target >>> 16;
+        int targetCol = target & 0xFFFF;
+        while (player.getPlayerPosX() != targetRow || player.getPlayerPosY() != targetCol) {
+            //going along the rows first, then along the columns
+            if (player.getPlayerPosX() != targetRow) {
+                player.move(Integer.signum(targetRow - player.getPlayerPosX()), 0);
+            } else {
+                player.move(0, Integer.signum(targetCol - player.getPlayerPosY()));
+            }
+            if (cells.getContent(player.getPlayerPosX(), player.getPlayerPosY()).wantsAttention()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Interacts with the current cell based on the player's position.
+     * It displays the description of the location and visits the content of
+     * the cell, letting any NPC or Puzzle present in it take its turn.
+     *
+     * @param player The player, whose cell is interacted with.
+     */
+    protected void interactWithCurrentCell(Player player) {
+        int slot = cells.find(player.getPlayerPosX(), player.getPlayerPosY());
+        String description = slot < 0 ? null : cells.getDescription(slot);
+        PrintStream out = GameConsole.out();
+        if (description != null) {
+            out.print(GameUtils.ANSI_GREEN);
+            out.print(description);
+            out.println(GameUtils.ANSI_RESET);
+        } else {
+            out.println("You are in an unmarked area.");
+        }
+
+        if (slot >= 0) {
+            cells.getContent(slot).visit(player);
+        }
     }
 }
 
@@ -0,0 +1,171 @@
+package com.heisenbergenigma.locations;
+
+import com.heisenbergenigma.world.ChunkedGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The RoomIndex class finds the rooms of a location by name. Every labelled cell of
+ * the location is a room, and a room can be named by any prefix of its label, in
+ * any case, as long as the prefix names only one label: in the Car Wash "man" is
+ * the Manager's Office while "s" could be the Storage Room or the Secret Area.
+ * <p>
+ * The labels are sorted once when the location is built, so a lookup is a binary
+ * search for the first label at or after the name followed by a scan of the labels
+ * that start with it. A label shared by several cells is one room name with several
+ * cells, and the cell nearest to the player is the one they are taken to.
+ */
+public class RoomIndex {
+    // Results of a lookup that names no room, or more than one
+    public static final int NOT_FOUND = -1;
+    public static final int AMBIGUOUS = -2;
+
+    // Labels in lower case, sorted, and as written in the world content
+    private final String[] keys;
+    private final String[] names;
+    // Packed cells of every label, those of label i at cells[firstCell[i]] to cells[firstCell[i + 1] - 1]
+    private final int[] firstCell;
+    private final int[] cells;
+
+    /**
+     * Constructs a RoomIndex over the labels of a location.
+     *
+     * @param labels The labels of the cells of the location.
+     */
+    public RoomIndex(ChunkedGrid<String> labels) {
+        List<String> found = new ArrayList<>(labels.size());
+        List<Integer> foundCells = new ArrayList<>(labels.size());
+        labels.forEach((row, col, label) -> {
+            if (!label.isBlank()) {
+                found.add(label.trim());
+                foundCells.add(CellStore.pack(row, col));
+            }
+        });
+        // Sorting the cells by label groups the cells of a label together
+        Integer[] order = new Integer[found.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> key(found.get(a)).compareTo(key(found.get(b))));
+
+        List<String> sortedKeys = new ArrayList<>();
+        List<String> sortedNames = new ArrayList<>();
+        this.firstCell = new int[order.length + 1];
+        this.cells = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            String name = found.get(order[i]);
+            if (sortedKeys.isEmpty() || !sortedKeys.get(sortedKeys.size() - 1).equals(key(name))) {
+                firstCell[sortedKeys.size()] = i;
+                sortedKeys.add(key(name));
+                sortedNames.add(name);
+            }
+            cells[i] = foundCells.get(order[i]);
+        }
+        firstCell[sortedKeys.size()] = order.length;
+        this.keys = sortedKeys.toArray(new String[0]);
+        this.names = sortedNames.toArray(new String[0]);
+    }
+
+    /**
+     * Finds the room a name typed by the player stands for. A name that is a whole
+     * label is that room even if other labels start with it.
+     *
+     * @param name The name, or the start of it.
+     * @return The index of the room, {@link #NOT_FOUND} or {@link #AMBIGUOUS}.
+     */
+    public int lookup(String name) {
+        String prefix = key(name);
+        if (prefix.isEmpty()) {
+            return NOT_FOUND;
+        }
+        int first = lowerBound(prefix);
+        if (first == keys.length || !keys[first].startsWith(prefix)) {
+            return NOT_FOUND;
+        }
+        if (keys[first].equals(prefix)
+                || first + 1 == keys.length || !keys[first + 1].startsWith(prefix)) {
+            return first;
+        }
+        return AMBIGUOUS;
+    }
+
+    /**
+     * Returns the names of the rooms whose labels start with a name, to offer the
+     * player a choice after an ambiguous lookup.
+     *
+     * @param name The name, or the start of it.
+     * @return The labels starting with the name, in alphabetical order.
+     */
+    public List<String> matches(String name) {
+        String prefix = key(name);
+        List<String> matching = new ArrayList<>();
+        for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            matching.add(names[i]);
+        }
+        return matching;
+    }
+
+    /**
+     * Returns the name of a room as it is labelled on the map.
+     *
+     * @param room The index of the room.
+     * @return The label of the room.
+     */
+    public String getName(int room) {
+        return names[room];
+    }
+
+    /**
+     * Returns the cell of a room nearest to the given cell. The grid of a location
+     * has no walls, so the nearest cell is the one with the fewest rows and columns
+     * to cross.
+     *
+     * @param room The index of the room.
+     * @param row  The row to measure from.
+     * @param col  The column to measure from.
+     * @return The packed cell, see {@link CellStore#pack(int, int)}.
+     */
+    public int nearestCell(int room, int row, int col) {
+        int nearest = cells[firstCell[room]];
+        for (int i = firstCell[room] + 1; i < firstCell[room + 1]; i++) {
+            if (distance(cells[i], row, col) < distance(nearest, row, col)) {
+                nearest = cells[i];
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the number of rooms, counting a label shared by several cells once.
+     *
+     * @return The number of rooms.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int distance(int cell, int row, int col) {
+        return Math.abs((cell >>> 16) - row) + Math.abs((cell & 0xFFFF) - col);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,30 +1,108 @@
 package com.heisenbergenigma.main;
 
 /**
- * The GameState class is a utility class that maintains the state of the game
- * across different levels. It tracks various flags for hints received and puzzles
- * solved at each level of the game.
+ * The GameState class maintains the state of one playthrough across different
+ * levels. It tracks various flags for hints received and puzzles solved at each
+ * level of the game.
+ * <p>
+ * Every session owns its own GameState, so one JVM can host many playthroughs at
+ * once. All flags are packed into a single {@code long}, one bit per {@link Flag},
+ * which keeps a session's state at a few bytes.
  */
 public class GameState {
-    //.... State flags for Level 1
-    private static boolean janitorHintReceived = false;
-    private static boolean ClerkHintReceived = false;
-    private static boolean EmployeeHintReceived = false;
-    private static boolean CustomerHintReceived = false;
-    private static boolean licensePuzzleSolved = false;
-    private static boolean PinPuzzleSolved = false;
-    private static boolean QAPuzzleSolved = false;
 
-    //....  State flags for Level 2
-    private static boolean AssociateHintReceived = false;
-    private static boolean ReceptionistHintReceived = false;
-    private static boolean CleanerisHintReceived = false;
+    /**
+     * The flags tracked for a playthrough. Each constant maps to one bit of the
+     * packed state, so there can be at most 64 of them.
+     */
+    public enum Flag {
+        //.... State flags for Level 1
+        JANITOR_HINT_RECEIVED,
+        CLERK_HINT_RECEIVED,
+        EMPLOYEE_HINT_RECEIVED,
+        CUSTOMER_HINT_RECEIVED,
+        LICENSE_PUZZLE_SOLVED,
+        PIN_PUZZLE_SOLVED,
+        QA_PUZZLE_SOLVED,
+
+        //....  State flags for Level 2
+        ASSOCIATE_HINT_RECEIVED,
+        RECEPTIONIST_HINT_RECEIVED,
+        CLEANER_HINT_RECEIVED,
+        JUMBLED_WORD_PUZZLE_SOLVED,
+        DECRYPTION_PUZZLE_SOLVED,
+        HIDDEN_CODE_SOLVED;
+
+        private final long mask = 1L << ordinal();
+
+        /**
+         * Returns the bit this flag occupies in the packed state.
+         *
+         * @return the bit mask of the flag.
+         */
+        public long mask() {
+            return mask;
+        }
+    }
+
+    // One bit per Flag, indexed by the flag's ordinal
+    private long flags;
+
+    /**
+     * Constructs a GameState with every flag cleared.
+     */
+    public GameState() {
+        this.flags = 0L;
+    }
 
+    /**
+     * Checks whether the given flag is set.
+     *
+     * @param flag the flag to check.
+     * @return boolean indicating if the flag is set.
+     */
+    public boolean is(Flag flag) {
+        return (flags & flag.mask()) != 0;
+    }
+
+    /**
+     * Sets or clears the given flag.
+     *
+     * @param flag  the flag to update.
+     * @param value boolean indicating the new value of the flag.
+     */
+    public void set(Flag flag, boolean value) {
+        if (value) {
+            flags |= flag.mask();
+        } else {
+            flags &= ~flag.mask();
+        }
+    }
+
+    /**
+     * Returns all flags packed into a single long, one bit per {@link Flag} ordinal.
+     *
+     * @return the packed flags.
+     */
+    public long getFlags() {
+        return flags;
+    }
 
-    private static boolean JumbledWordPuzzleSolved = false;
-    private static boolean DecryptionPuzzleSolved = false;
-    private static boolean HiddenCodeSolved = false;
+    /**
+     * Replaces all flags with the given packed value.
+     *
+     * @param flags the packed flags, as returned by {@link #getFlags()}.
+     */
+    public void setFlags(long flags) {
+        this.flags = flags;
+    }
 
+    /**
+     * Clears every flag, returning the state to the start of a new game.
+     */
+    public void reset() {
+        flags = 0L;
+    }
 
     // ... Getters & Setters ...
 
@@ -33,8 +111,8 @@ public class GameState {
      *
      * @param received boolean indicating if the hint is received.
      */
-    public static void setJanitorHintReceived(boolean received) {
-        janitorHintReceived = received;
+    public void setJanitorHintReceived(boolean received) {
+        set(Flag.JANITOR_HINT_RECEIVED, received);
     }
 
     /**
@@ -43,105 +121,124 @@ public class GameState {
      * @return boolean indicating if the janitor hint is received.
      */
     // ... other getter and setter methods with the same logic ...
-    public static boolean isJanitorHintReceived() {
-        return janitorHintReceived;
+    public boolean isJanitorHintReceived() {
+        return is(Flag.JANITOR_HINT_RECEIVED);
     }
 
-    public static void setClerkHintReceived(boolean received) {
-        ClerkHintReceived = received;
+    public void setClerkHintReceived(boolean received) {
+        set(Flag.CLERK_HINT_RECEIVED, received);
     }
 
+    public boolean isClerkHintReceived() {
+        return is(Flag.CLERK_HINT_RECEIVED);
+    }
 
-    public static void setEmployeeHintReceived(boolean received) {
-        EmployeeHintReceived = received;
+    public void setEmployeeHintReceived(boolean received) {
+        set(Flag.EMPLOYEE_HINT_RECEIVED, received);
     }
 
-    public static boolean isEmployeeHintReceived() {
-        return EmployeeHintReceived;
+    public boolean isEmployeeHintReceived() {
+        return is(Flag.EMPLOYEE_HINT_RECEIVED);
     }
 
-    public static void setCustomerHintReceived(boolean received) {
-        CustomerHintReceived = received;
+    public void setCustomerHintReceived(boolean received) {
+        set(Flag.CUSTOMER_HINT_RECEIVED, received);
     }
 
-    public static boolean isCustomerHintReceived() {
-        return CustomerHintReceived;
+    public boolean isCustomerHintReceived() {
+        return is(Flag.CUSTOMER_HINT_RECEIVED);
     }
 
-    public static void setLicensePuzzleSolved(boolean solved) {
-        licensePuzzleSolved = solved;
+    public void setLicensePuzzleSolved(boolean solved) {
+        set(Flag.LICENSE_PUZZLE_SOLVED, solved);
     }
 
-    public static boolean isLicensePuzzleSolved() {
-        return licensePuzzleSolved;
+    public boolean isLicensePuzzleSolved() {
+        return is(Flag.LICENSE_PUZZLE_SOLVED);
     }
 
-    public static void setPinPuzzleSolved(boolean solved) {
-        PinPuzzleSolved = solved;
+    public void setPinPuzzleSolved(boolean solved) {
+        set(Flag.PIN_PUZZLE_SOLVED, solved);
     }
 
-    public static boolean isPinPuzzleSolved() {
-        return PinPuzzleSolved;
+    public boolean isPinPuzzleSolved() {
+        return is(Flag.PIN_PUZZLE_SOLVED);
     }
 
-    public static void setQAPuzzleSolved(boolean solved) {
-        QAPuzzleSolved = solved;
+    public void setQAPuzzleSolved(boolean solved) {
+        set(Flag.QA_PUZZLE_SOLVED, solved);
     }
 
-    public static boolean isQAPuzzleSolved() {
-        return QAPuzzleSolved;
+    public boolean isQAPuzzleSolved() {
+        return is(Flag.QA_PUZZLE_SOLVED);
     }
 
     //....... Level Two .....
     //Associate points to the jumbled Word Puzzle at Surveillance room
-    public static void setAssociateHintReceived(boolean received) {
-        AssociateHintReceived = received;
+    public void setAssociateHintReceived(boolean received) {
+        set(Flag.ASSOCIATE_HINT_RECEIVED, received);
     }
 
-    public static boolean isAssociateHintReceived() {
-        return AssociateHintReceived;
+    public boolean isAssociateHintReceived() {
+        return is(Flag.ASSOCIATE_HINT_RECEIVED);
     }
 
-    public static void setJumbledWordPuzzleSolved(boolean solved) {
-        JumbledWordPuzzleSolved = solved;
+    public void setJumbledWordPuzzleSolved(boolean solved) {
+        set(Flag.JUMBLED_WORD_PUZZLE_SOLVED, solved);
     }
 
-    public static boolean isJumbledWordPuzzleSolved() {
-        return JumbledWordPuzzleSolved;
+    public boolean isJumbledWordPuzzleSolved() {
+        return is(Flag.JUMBLED_WORD_PUZZLE_SOLVED);
     }
 
     //Receptionist points to the DecryptionPuzzle  at Conference room
-    public static void setReceptionistHintReceived(boolean received) {
-        ReceptionistHintReceived = received;
+    public void setReceptionistHintReceived(boolean received) {
+        set(Flag.RECEPTIONIST_HINT_RECEIVED, received);
     }
 
-    public static boolean isReceptionistHintReceived() {
-        return ReceptionistHintReceived;
+    public boolean isReceptionistHintReceived() {
+        return is(Flag.RECEPTIONIST_HINT_RECEIVED);
     }
 
-    public static void setDecryptionPuzzleSolved(boolean solved) {
-        DecryptionPuzzleSolved = solved;
+    public void setDecryptionPuzzleSolved(boolean solved) {
+        set(Flag.DECRYPTION_PUZZLE_SOLVED, solved);
     }
 
-    public static boolean isDecryptionPuzzleSolved() {
-        return DecryptionPuzzleSolved;
+    public boolean isDecryptionPuzzleSolved() {
+        return is(Flag.DECRYPTION_PUZZLE_SOLVED);
     }
 
-    public static void setCleanerHintReceived(boolean received) {
-        CleanerisHintReceived = received;
+    public void setCleanerHintReceived(boolean received) {
+        set(Flag.CLEANER_HINT_RECEIVED, received);
     }
 
-    public static boolean isCleanerHintReceived() {
-        return CleanerisHintReceived;
+    public boolean isCleanerHintReceived() {
+        return is(Flag.CLEANER_HINT_RECEIVED);
     }
 
-    public static void setHiddenCodePuzzleSolved(boolean solved) {
-        HiddenCodeSolved = solved;
+    public void setHiddenCodePuzzleSolved(boolean solved) {
+        set(Flag.HIDDEN_CODE_SOLVED, solved);
     }
 
-    public static boolean isHiddenCodeSolved() {
-        return HiddenCodeSolved;
+    public boolean isHiddenCodeSolved() {
+        return is(Flag.HIDDEN_CODE_SOLVED);
     }
-}
 
+    /**
+     * Checks if every puzzle of Level 1 has been solved.
+     *
+     * @return boolean indicating if the Car Wash puzzles are all solved.
+     */
+    public boolean isLevelOneComplete() {
+        return isLicensePuzzleSolved() && isQAPuzzleSolved() && isPinPuzzleSolved();
+    }
 
+    /**
+     * Checks if every puzzle of Level 2 has been solved.
+     *
+     * @return boolean indicating if the Saul Goodman's Office puzzles are all solved.
+     */
+    public boolean isLevelTwoComplete() {
+        return isDecryptionPuzzleSolved() && isHiddenCodeSolved() && isJumbledWordPuzzleSolved();
+    }
+}
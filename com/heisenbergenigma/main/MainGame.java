@@ -1,10 +1,20 @@
 package com.heisenbergenigma.main;
 
 import com.heisenbergenigma.locations.DesertLab;
+import com.heisenbergenigma.locations.Location;
 import com.heisenbergenigma.locations.SaulGoodmansOffice;
 import com.heisenbergenigma.player.Player;
 import com.heisenbergenigma.ui.UiManager;
 import com.heisenbergenigma.locations.CarWash;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.LineReader;
+import com.heisenbergenigma.utils.SaveLoadManager;
+import com.heisenbergenigma.utils.SessionJournal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * MainGame is the central class of the game, responsible for initializing and
@@ -13,50 +23,233 @@ import com.heisenbergenigma.locations.CarWash;
  */
 
 public class MainGame {
+    // Ids of the levels, in the order they are played
+    private static final List<String> LEVEL_ORDER =
+            List.of(CarWash.LEVEL_ID, SaulGoodmansOffice.LEVEL_ID, DesertLab.LEVEL_ID);
+
     private Player player;
     private UiManager uiManager;
-    private CarWash carWash;
-    private static MainGame instance;
-    private SaulGoodmansOffice saulOffice;
-    private DesertLab desertLab;
+    private final GameState gameState;
+    private final SaveLoadManager saves;
+    // Journal of the game being played and the location of its current level
+    private SessionJournal journal;
+    private Location location;
 
 
     /**
-     * Constructs the MainGame object, initializing the UI manager and game locations.
+     * Constructs the MainGame object, initializing the UI manager and the state of
+     * this playthrough. The locations are loaded from the world content as each
+     * level starts. Progress is saved in the {@value SaveLoadManager#DEFAULT_DIRECTORY}
+     * directory, along with the journal of the lines typed since the last save.
      */
     public MainGame() {
-        this.uiManager = new UiManager(this);
-        this.carWash = new CarWash();
-        this.saulOffice = new SaulGoodmansOffice();
-        this.desertLab = new DesertLab();
+        this(new SaveLoadManager(Paths.get(SaveLoadManager.DEFAULT_DIRECTORY)));
+    }
 
+    /**
+     * Constructs the MainGame object with the given save manager, which a server shares
+     * between the games of all its players.
+     *
+     * @param saves The manager the progress of the game is saved with.
+     */
+    public MainGame(SaveLoadManager saves) {
+        this.uiManager = new UiManager(this);
+        this.gameState = new GameState();
+        this.saves = saves;
     }
 
     /**
      * Starts a new game, creating a player profile and initiating the first level.
+     * Each level is loaded only when it begins, so the content of a finished level
+     * can be collected while the next one is played.
      * If player creation fails, it terminates the game.
      *
      * @throws InterruptedException if the game is interrupted during execution.
+     * @throws IOException          if the journal of the game cannot be created.
      */
-    public void startNewGame() throws InterruptedException {
+    public void startNewGame() throws InterruptedException, IOException {
         this.player = uiManager.createPlayerProfile();
         if (this.player != null) {
-            carWash.beginLevelOne(this.player, this.uiManager);
-            saulOffice.BeginLevelTwo(this.player, this.uiManager);
-            desertLab.BeginLevelThree(this.player, this.uiManager);
-
+            if (saves.needsPlayerId()) {
+                GameConsole.out().println("Your player id is " + player.getPlayerId() + ". You will need it along with your name to load your game.");
+            }
+            play(null, SessionJournal.create(saves, player.getPlayerId()));
         } else {
-            System.out.println("Player creation failed. Exiting game.");
+            GameConsole.out().println("Player creation failed. Exiting game.");
+        }
+    }
+
+    /**
+     * Loads the game a player saved and carries on playing it from the level and the
+     * cell it was saved on. The lines the player typed after the save, kept in the
+     * journal, are played again first, so a game that ended in a crash goes on from
+     * where it was.
+     *
+     * @param playerName The name the player saved under, as they typed it.
+     * @param playerId   The id of the player, or null to load the latest game saved
+     *                   under the name, which only saves kept on the player's machine allow.
+     * @return boolean indicating if a saved game was found and played.
+     * @throws IOException if the saved game cannot be read.
+     * @see #needsPlayerId()
+     */
+    public boolean loadGame(String playerName, UUID playerId) throws IOException {
+        SaveLoadManager.SaveGame save = playerId == null ? saves.load(playerName) : saves.load(playerId, playerName);
+        if (save == null) {
+            return false;
         }
+        playSavedGame(save, false);
+        return true;
     }
 
     /**
-     * Provides the singleton instance of the MainGame.
+     * Tells whether a player must give their id as well as their name to load a game,
+     * as on a server, whose players share one store of saves.
      *
-     * @return the instance of MainGame.
+     * @return boolean indicating if loading needs the player's id.
      */
-    public static MainGame getInstance() {
-        return instance;
+    public boolean needsPlayerId() {
+        return saves.needsPlayerId();
+    }
+
+    /**
+     * Rebuilds the game of a player whose session was put aside while they were idle,
+     * from their save and journal, and plays on. The output of the rebuilt turns is
+     * dropped, the player sees only what follows the next line they type.
+     *
+     * @param playerId   The id of the player.
+     * @param playerName The name of the player.
+     * @throws IOException if the saved game cannot be read.
+     */
+    public void resume(UUID playerId, String playerName) throws IOException {
+        SaveLoadManager.SaveGame save = saves.load(playerId, playerName);
+        if (save == null) {
+            throw new IOException("No saved game found for " + playerName);
+        }
+        try {
+            playSavedGame(save, true);
+        } catch (SessionEndedException e) {
+            uiManager.cancelQueuedCommands();
+        } finally {
+            GameConsole.flush();
+        }
+    }
+
+    /**
+     * Plays a saved game from the level and the cell it was saved on, replaying the
+     * lines of its journal first.
+     *
+     * @param save  The saved game.
+     * @param muted boolean indicating if the output of the replayed lines is dropped.
+     * @throws IOException if the game was saved in an unknown level, or its journal cannot be read.
+     */
+    private void playSavedGame(SaveLoadManager.SaveGame save, boolean muted) throws IOException {
+        if (!LEVEL_ORDER.contains(save.getLevelId())) {
+            throw new IOException("The game was saved in an unknown level: " + save.getLevelId());
+        }
+        SessionJournal recovered = SessionJournal.recover(saves, save.getPlayerId(), save.getJournalSequence());
+        this.player = save.createPlayer();
+        gameState.setFlags(save.getFlags());
+        if (muted) {
+            GameConsole.muteUntilInput();
+        }
+        play(save, recovered);
+    }
+
+    /**
+     * Plays the levels while recording the player's lines in a journal, then closes it.
+     * A player who exits has their progress saved first, so loading the game doesn't
+     * replay the exit. A player who is idle has their game put aside as it is, to be
+     * rebuilt from the journal, see {@link #resume(UUID, String)}.
+     *
+     * @param save    The saved game to resume, or null to start from the first level.
+     * @param journal The journal of the game, holding the lines to replay, if any.
+     */
+    private void play(SaveLoadManager.SaveGame save, SessionJournal journal) {
+        LineReader reader = GameConsole.reader();
+        this.journal = journal;
+        reader.setJournal(journal);
+        reader.replay(journal.getRecoveredLines());
+        try {
+            playLevels(save);
+        } catch (SessionEndedException e) {
+            if (location != null) {
+                journal.snapshot(location.snapshot(player));
+            }
+            throw e;
+        } catch (SessionIdleException e) {
+            throw new SessionIdleException(player.getName(), player.getPlayerId());
+        } finally {
+            reader.setJournal(null);
+            this.journal = null;
+            this.location = null;
+            try {
+                journal.close();
+            } catch (IOException e) {
+                GameConsole.out().println("Your progress could not be saved: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Plays the levels in order, from the first or from the level a game was saved in.
+     *
+     * @param save The saved game to resume, or null to start from the first level.
+     */
+    private void playLevels(SaveLoadManager.SaveGame save) {
+        int firstLevel = save == null ? 0 : LEVEL_ORDER.indexOf(save.getLevelId());
+        if (firstLevel <= 0) {
+            prepare(new CarWash(gameState), save).beginLevelOne(this.player, this.uiManager);
+        }
+        if (firstLevel <= 1) {
+            prepare(new SaulGoodmansOffice(gameState), save).BeginLevelTwo(this.player, this.uiManager);
+        }
+        if (firstLevel <= 2) {
+            prepare(new DesertLab(gameState), save).BeginLevelThree(this.player, this.uiManager);
+        }
+    }
+
+    /**
+     * Turns on autosave through the journal for a level, and restores the saved game if it was saved in that level.
+     *
+     * @param location The location of the level.
+     * @param save     The saved game being resumed, or null.
+     * @param <L>      The type of the location.
+     * @return The location.
+     */
+    private <L extends Location> L prepare(L location, SaveLoadManager.SaveGame save) {
+        location.enableAutosave(journal);
+        if (save != null && save.getLevelId().equals(location.getLevelId())) {
+            location.restore(save);
+        }
+        this.location = location;
+        return location;
+    }
+
+    /**
+     * Returns the state of this playthrough.
+     *
+     * @return the GameState of this game.
+     */
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Runs this game session from the main menu until the player leaves it, either
+     * from the menu or by exiting in the middle of a level. Leaving ends only this
+     * session, the process keeps running. A player idle in the middle of a game ends
+     * the game early with a {@link SessionIdleException}, their session can resume it.
+     */
+    public void start() {
+        try {
+            uiManager.displayMainMenu();
+        } catch (SessionEndedException e) {
+            // The player exited during the game, drop the commands they typed after it
+            uiManager.cancelQueuedCommands();
+        } finally {
+            // Deliver the farewell, no further input will be read to flush it
+            GameConsole.flush();
+        }
     }
 
     /**
@@ -66,6 +259,6 @@ public class MainGame {
      */
     public static void main(String[] args) {
         MainGame game = new MainGame();
-        game.uiManager.displayMainMenu();
+        game.start();
     }
 }
@@ -0,0 +1,21 @@
+package com.heisenbergenigma.main;
+
+/**
+ * The SessionEndedException signals that the player has chosen to leave the game.
+ * It is thrown by {@link com.heisenbergenigma.utils.GameUtils#exitGame()} from
+ * wherever the player typed "exit" or declined to proceed, unwinds the levels and
+ * puzzles of that player's session only, and is caught by {@link MainGame#start()},
+ * which ends the session. Other sessions served by the same process carry on.
+ * <p>
+ * It is a signal rather than an error, so it records no stack trace.
+ */
+public class SessionEndedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a SessionEndedException.
+     */
+    public SessionEndedException() {
+        super("The player left the game", null, false, false);
+    }
+}
@@ -0,0 +1,53 @@
+package com.heisenbergenigma.main;
+
+import java.util.UUID;
+
+/**
+ * The SessionIdleException unwinds a game whose player has been idle for too long, so
+ * its session can let go of the game while it waits. The game is in its save and
+ * journal, and {@link MainGame#resume(UUID, String)} rebuilds it when the player is back.
+ * <p>
+ * The reader that notices the idle player throws it without a player, and
+ * {@link MainGame} throws it on with the player whose game was put aside.
+ * <p>
+ * It is a signal rather than an error, so it records no stack trace.
+ */
+public class SessionIdleException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String playerName;
+    private final UUID playerId;
+
+    /**
+     * Constructs a SessionIdleException for a game not known yet.
+     */
+    public SessionIdleException() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a SessionIdleException for the game of the given player.
+     *
+     * @param playerName The name of the player.
+     * @param playerId   The id of the player.
+     */
+    public SessionIdleException(String playerName, UUID playerId) {
+        super("The player has been idle", null, false, false);
+        this.playerName = playerName;
+        this.playerId = playerId;
+    }
+
+    /**
+     * @return The name of the idle player, or null if not known.
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * @return The id of the idle player, or null if not known.
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+}
@@ -1,28 +1,34 @@
 package com.heisenbergenigma.npcs;
 
+import com.heisenbergenigma.interfaces.CellContent;
 import com.heisenbergenigma.interfaces.Interactable;
 import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.ui.GameConsole;
 
 /**
  * The NPC (Non-Player Character) class represents characters in the game that
  * players can interact with. These characters can provide hints, instructions,
  * or contribute to the game's narrative.
  */
-public class NPC implements Interactable {
+public class NPC implements Interactable, CellContent {
     private String name;
     private String instruction;
     private boolean hasInteracted;
+    private final GameState gameState;
 
     /**
      * Constructs an NPC with a specified name and instruction.
      *
      * @param name        The name of the NPC.
      * @param instruction The instruction or dialogue the NPC provides.
+     * @param gameState   The state of the playthrough the NPC reports hints to.
      */
-    public NPC(String name, String instruction) {
+    public NPC(String name, String instruction, GameState gameState) {
         this.name = name;
         this.instruction = instruction;
         this.hasInteracted = false;
+        this.gameState = gameState;
 
     }
 
@@ -36,6 +42,45 @@ public class NPC implements Interactable {
         return this.name;
     }
 
+    /**
+     * Checks whether the NPC has spoken to the player.
+     *
+     * @return boolean indicating if the NPC has spoken.
+     */
+    public boolean hasInteracted() {
+        return hasInteracted;
+    }
+
+    /**
+     * Sets whether the NPC has spoken to the player, as when a saved game is loaded.
+     * The hints the NPC gives are part of the game state and are not set again.
+     *
+     * @param hasInteracted boolean indicating if the NPC has spoken.
+     */
+    public void setInteracted(boolean hasInteracted) {
+        this.hasInteracted = hasInteracted;
+    }
+
+    /**
+     * Interacts with the NPC whenever the player stands on its cell.
+     *
+     * @param player The player standing on the cell.
+     */
+    @Override
+    public void visit(Player player) {
+        interact();
+    }
+
+    /**
+     * Asks for the player's attention until the NPC has spoken.
+     *
+     * @return boolean indicating if the NPC has not spoken yet.
+     */
+    @Override
+    public boolean wantsAttention() {
+        return !hasInteracted;
+    }
+
     /**
      * Interacts with the NPC. On first interaction, it displays the instruction
      * and updates the game state based on the NPC's role. Subsequent interactions
@@ -44,29 +89,29 @@ public class NPC implements Interactable {
     @Override
     public void interact() {
         if (!hasInteracted) {
-            System.out.println(name + ":" + instruction);
+            GameConsole.out().println(name + ":" + instruction);
             hasInteracted = true;
             switch (this.getName()) {
                 case "Inquisitive Janitor":
-                    GameState.setJanitorHintReceived(true);
+                    gameState.setJanitorHintReceived(true);
                     break;
                 case "Welcoming Clerk":
-                    GameState.setClerkHintReceived(true);
+                    gameState.setClerkHintReceived(true);
                     break;
                 case "Former Employee":
-                    GameState.setEmployeeHintReceived(true);
+                    gameState.setEmployeeHintReceived(true);
                     break;
                 case "Curious Customer":
-                    GameState.setCustomerHintReceived(true);
+                    gameState.setCustomerHintReceived(true);
                     break;
                 case "Junior Associate":
-                    GameState.setAssociateHintReceived(true);
+                    gameState.setAssociateHintReceived(true);
                     break;
                 case "Observant Receptionist":
-                    GameState.setReceptionistHintReceived(true);
+                    gameState.setReceptionistHintReceived(true);
                     break;
                 case "Discreet Cleaner":
-                    GameState.setCleanerHintReceived(true);
+                    gameState.setCleanerHintReceived(true);
                     break;
                 default:
                     break;
@@ -0,0 +1,193 @@
+package com.heisenbergenigma.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The AssetPack class gives access to the assets packed into one file by
+ * {@link AssetPackWriter}. The file is memory-mapped once and every asset is handed
+ * out as a read-only {@link ByteBuffer} slice of the mapping, so reading an asset
+ * copies nothing and all sessions of the process share the same pages.
+ * <p>
+ * A pack file starts with an index:
+ * <pre>
+ *   int   magic "HEPK"
+ *   int   format version
+ *   int   number of entries
+ *   per entry:
+ *     short + UTF-8  name, the asset's classpath location
+ *     short + UTF-8  format, the file extension of the asset
+ *     long           offset of the data from the start of the file
+ *     long           length of the data
+ * </pre>
+ * followed by the data of every asset.
+ */
+public class AssetPack {
+    public static final int MAGIC = 0x4845504B;
+    public static final int VERSION = 1;
+    // Where the game looks for its pack, unless the heisenberg.assetPack property says otherwise
+    public static final String DEFAULT_PACK = "assets.pack";
+
+    private static volatile AssetPack shared;
+    private static volatile boolean sharedLoaded;
+
+    private final Path file;
+    private final MappedByteBuffer mapping;
+    private final Map<String, Entry> entries;
+
+    private AssetPack(Path file, MappedByteBuffer mapping, Map<String, Entry> entries) {
+        this.file = file;
+        this.mapping = mapping;
+        this.entries = entries;
+    }
+
+    /**
+     * Maps a pack file and reads its index.
+     *
+     * @param file The pack file.
+     * @return The opened pack.
+     * @throws IOException if the file cannot be read or is not an asset pack.
+     */
+    public static AssetPack open(Path file) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer index = mapping.duplicate();
+        if (index.remaining() < 12 || index.getInt() != MAGIC) {
+            throw new IOException("Not an asset pack: " + file);
+        }
+        int version = index.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset pack version " + version + ": " + file);
+        }
+        int count = index.getInt();
+        Map<String, Entry> entries = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = readString(index);
+            String format = readString(index);
+            long offset = index.getLong();
+            long length = index.getLong();
+            if (offset < 0 || length < 0 || offset + length > mapping.capacity()) {
+                throw new IOException("Asset " + name + " lies outside the pack: " + file);
+            }
+            entries.put(name, new Entry(name, format, (int) offset, (int) length));
+        }
+        return new AssetPack(file, mapping, entries);
+    }
+
+    /**
+     * Returns the pack shared by every session of the process. It is opened on first
+     * use from the file named by the {@code heisenberg.assetPack} system property, or
+     * {@value #DEFAULT_PACK} in the working directory.
+     *
+     * @return The shared pack, or null if there is no pack file and assets should be
+     * loaded from the classpath.
+     */
+    public static AssetPack shared() {
+        if (!sharedLoaded) {
+            synchronized (AssetPack.class) {
+                if (!sharedLoaded) {
+                    Path file = Path.of(System.getProperty("heisenberg.assetPack", DEFAULT_PACK));
+                    if (Files.isRegularFile(file)) {
+                        try {
+                            shared = open(file);
+                        } catch (IOException e) {
+                            System.err.println("Ignoring asset pack: " + e.getMessage());
+                        }
+                    }
+                    sharedLoaded = true;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Checks whether the pack holds the given asset.
+     *
+     * @param name The classpath location of the asset.
+     * @return boolean indicating if the asset is packed.
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Returns the data of an asset without copying it.
+     *
+     * @param name The classpath location of the asset.
+     * @return A read-only buffer over the asset's bytes, with its own position and limit.
+     * @throws IllegalArgumentException if the pack does not hold the asset.
+     */
+    public ByteBuffer slice(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Asset not in pack: " + name);
+        }
+        return mapping.slice(entry.offset, entry.length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the format of an asset, which is the extension of the file it was packed from.
+     *
+     * @param name The classpath location of the asset.
+     * @return The format of the asset, or null if the pack does not hold it.
+     */
+    public String getFormat(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? null : entry.format;
+    }
+
+    /**
+     * Returns the names of all assets in the pack.
+     *
+     * @return The classpath locations of the packed assets.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Returns the file the pack was mapped from.
+     *
+     * @return The pack file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private static String readString(ByteBuffer index) {
+        byte[] bytes = new byte[index.getShort() & 0xFFFF];
+        index.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The Entry class is the index record of one packed asset.
+     */
+    private static class Entry {
+        private final String name;
+        private final String format;
+        private final int offset;
+        private final int length;
+
+        Entry(String name, String format, int offset, int length) {
+            this.name = name;
+            this.format = format;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
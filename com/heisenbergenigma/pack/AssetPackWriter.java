@@ -0,0 +1,111 @@
+package com.heisenbergenigma.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The AssetPackWriter class is the build step that packs the game's assets into one
+ * file for {@link AssetPack}. Every file below the asset directory is packed under
+ * its classpath location, so game code asks for the same names whether the assets
+ * come from the pack or from the classpath.
+ * <p>
+ * Run it from the repository root with
+ * {@code java com.heisenbergenigma.pack.AssetPackWriter [asset directory] [pack file]}.
+ */
+public class AssetPackWriter {
+    public static final String DEFAULT_ASSET_DIRECTORY = "com/heisenbergenigma/assets";
+    // Asset data starts on this boundary, which keeps samples aligned in the mapping
+    private static final int ALIGNMENT = 16;
+
+    /**
+     * Packs every file below a directory into a pack file. The pack is written to a
+     * temporary file first and moved into place, so a running game never maps a
+     * half-written pack.
+     *
+     * @param root      The classpath root the asset names are relative to.
+     * @param directory The directory to pack, below the root.
+     * @param output    The pack file to write.
+     * @return The number of assets packed.
+     * @throws IOException if an asset cannot be read or the pack cannot be written.
+     */
+    public static int write(Path root, Path directory, Path output) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root.resolve(directory))) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> formats = new ArrayList<>();
+        int indexSize = 12;
+        for (Path file : files) {
+            String name = root.relativize(file).toString().replace('\\', '/');
+            String fileName = file.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            names.add(name.getBytes(StandardCharsets.UTF_8));
+            formats.add((dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase()).getBytes(StandardCharsets.UTF_8));
+            indexSize += 2 + names.get(names.size() - 1).length + 2 + formats.get(formats.size() - 1).length + 16;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate(indexSize);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(files.size());
+        long offset = align(indexSize);
+        for (int i = 0; i < files.size(); i++) {
+            long length = Files.size(files.get(i));
+            index.putShort((short) names.get(i).length).put(names.get(i));
+            index.putShort((short) formats.get(i).length).put(formats.get(i));
+            index.putLong(offset).putLong(length);
+            offset = align(offset + length);
+        }
+        index.flip();
+
+        Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        try (FileChannel pack = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            pack.write(index);
+            long position = align(indexSize);
+            for (Path file : files) {
+                try (FileChannel asset = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long length = asset.size();
+                    for (long copied = 0; copied < length; ) {
+                        copied += asset.transferTo(copied, length - copied, pack.position(position + copied));
+                    }
+                    position = align(position + length);
+                }
+            }
+            // Pad the last asset so the file ends on the same boundary as the index claims
+            pack.truncate(position);
+            if (pack.size() < position) {
+                pack.write(ByteBuffer.allocate(1), position - 1);
+            }
+            pack.force(true);
+        }
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return files.size();
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Packs the game's assets.
+     *
+     * @param args optional asset directory and optional pack file, relative to the working directory.
+     * @throws IOException if the pack cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : DEFAULT_ASSET_DIRECTORY);
+        Path output = Path.of(args.length > 1 ? args[1] : AssetPack.DEFAULT_PACK);
+        int count = write(Path.of(""), directory, output);
+        System.out.println("Packed " + count + " assets into " + output + " (" + Files.size(output) + " bytes)");
+    }
+}
@@ -0,0 +1,70 @@
+package com.heisenbergenigma.pack;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The ByteBufferInputStream class reads a {@link ByteBuffer} as a stream without
+ * copying it first, so a slice of a memory-mapped {@link AssetPack} can be handed to
+ * code that expects an InputStream. It supports mark and reset, which audio file
+ * parsers rely on.
+ */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+    private int mark;
+
+    /**
+     * Constructs a ByteBufferInputStream over the remaining bytes of the buffer.
+     *
+     * @param buffer The buffer to read, which the stream takes over.
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] target, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(target, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buffer.position(mark);
+    }
+}
@@ -1,19 +1,28 @@
 package com.heisenbergenigma.player;
 
 import com.heisenbergenigma.items.Item;
+import com.heisenbergenigma.items.ItemCatalog;
 import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.ui.GameConsole;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.UUID;
-import java.util.ArrayList;
 
 /**
  * The InventoryManager class is responsible for managing the inventory of a player.
  * It allows for adding items to the inventory, displaying the inventory, and
  * clearing the inventory. Each inventory is associated with a unique player ID.
+ * <p>
+ * The inventory holds the ids of {@link ItemCatalog} items rather than items: one bit
+ * per item tells which are held, and the ids are kept in the order they were received
+ * for display. A player holds an item at most once.
  */
 public class InventoryManager {
-    private List<Item> inventory;
+    // Items held, bit i for the catalog's item i
+    private long held;
+    // Ids of the items held, in the order they were received
+    private final byte[] order = new byte[ItemCatalog.size()];
+    private int count;
     private UUID playerUniqueId;
 
     /**
@@ -23,16 +32,33 @@ public class InventoryManager {
      */
     public InventoryManager(UUID playerUniqueId) {
         this.playerUniqueId = playerUniqueId;
-        inventory = new ArrayList<>();
     }
 
     /**
-     * Adds an item to the player's inventory.
+     * Adds an item to the player's inventory, unless they already hold it.
      *
-     * @param item The item to be added to the inventory.
+     * @param itemId The catalog id of the item to be added to the inventory.
+     * @throws IllegalArgumentException if the catalog has no item with this id.
      */
-    public void addItem(Item item) {
-        inventory.add(item);
+    public void addItem(int itemId) {
+        if (!ItemCatalog.contains(itemId)) {
+            throw new IllegalArgumentException("Unknown item id " + itemId);
+        }
+        if (has(itemId)) {
+            return;
+        }
+        held |= 1L << itemId;
+        order[count++] = (byte) itemId;
+    }
+
+    /**
+     * Tells whether the player holds an item.
+     *
+     * @param itemId The catalog id of the item.
+     * @return true if the item is in the inventory.
+     */
+    public boolean has(int itemId) {
+        return ItemCatalog.contains(itemId) && (held & 1L << itemId) != 0;
     }
 
     /**
@@ -40,21 +66,37 @@ public class InventoryManager {
      * it indicates so to the player.
      */
     public void displayInventory() {
-        if (inventory.isEmpty()) {
-            System.out.println("Your inventory is empty.");
+        if (count == 0) {
+            GameConsole.out().println("Your inventory is empty.");
             return;
         }
-        System.out.println("Inventory Items:");
-        for (Item item : inventory) {
-            System.out.println(GameUtils.ANSI_PURPLE+"- " + item.getName() + ": " + item.getDescription()+GameUtils.ANSI_RESET);
+        GameConsole.out().println("Inventory Items:");
+        for (int i = 0; i < count; i++) {
+            Item item = ItemCatalog.get(order[i]);
+            GameConsole.out().println(GameUtils.ANSI_PURPLE+"- " + item.getName() + ": " + item.getDescription()+GameUtils.ANSI_RESET);
+        }
+    }
+
+    /**
+     * Returns the ids of the items in the player's inventory, in the order they were received.
+     *
+     * @return A new array of catalog ids.
+     */
+    public int[] getItemIds() {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = order[i];
         }
+        return ids;
     }
 
     /**
      * Clears all items from the player's inventory.
      */
     public void clearInventory() {
-        inventory.clear();
+        held = 0L;
+        Arrays.fill(order, 0, count, (byte) 0);
+        count = 0;
     }
 
     /**
@@ -65,4 +107,4 @@ public class InventoryManager {
     public UUID getPlayerUniqueId() {
         return playerUniqueId;
     }
-}
\ No newline at end of file
+}
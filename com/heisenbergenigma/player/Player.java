@@ -1,9 +1,10 @@
 package com.heisenbergenigma.player;
 
-import com.heisenbergenigma.items.Item;
 import com.heisenbergenigma.main.MainGame;
 import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.ui.GameConsole;
 
+import java.io.PrintStream;
 import java.util.UUID;
 
 /**
@@ -12,12 +13,12 @@ import java.util.UUID;
  * interactions.
  */
 public class Player {
-    private static Player instance;
-
     private InventoryManager inventory;
     private String name;
     private UUID playerId; // Unique ID
     private int playerPosX, playerPosY;
+    // Size of the area the player moves in, the 3x3 layout unless a level sets it
+    private int areaRows = 3, areaCols = 3;
 
     /**
      * Constructs a Player with a given name. Initializes the player's inventory
@@ -26,10 +27,20 @@ public class Player {
      * @param name The name of the player.
      */
     public Player(String name) {
+        this(name, UUID.randomUUID()); // Generate a unique ID
+    }
+
+    /**
+     * Constructs a Player who already has an ID, such as a player whose saved game
+     * is loaded. Initializes an empty inventory and the player's initial position.
+     *
+     * @param name     The name of the player.
+     * @param playerId The unique ID of the player.
+     */
+    public Player(String name, UUID playerId) {
         this.name = name;
-        this.playerId = UUID.randomUUID(); // Generate a unique ID
+        this.playerId = playerId;
         this.inventory = new InventoryManager(this.playerId);
-        instance = this;
         resetPosition();
 
     }
@@ -42,6 +53,22 @@ public class Player {
         playerPosY = 1; // Set player's Y-coordinate
     }
 
+    /**
+     * Moves the player into an area of the given size, such as the grid of a level,
+     * and places them at the given cell. Movement is kept inside the area.
+     *
+     * @param rows     The number of rows of the area.
+     * @param cols     The number of columns of the area.
+     * @param startRow The row the player starts on.
+     * @param startCol The column the player starts on.
+     */
+    public void enterArea(int rows, int cols, int startRow, int startCol) {
+        this.areaRows = rows;
+        this.areaCols = cols;
+        this.playerPosX = startRow;
+        this.playerPosY = startCol;
+    }
+
     /**
      * Gets the InventoryManager for the player.
      *
@@ -54,10 +81,10 @@ public class Player {
     /**
      * Adds an item to the player's inventory.
      *
-     * @param item The item to add to the inventory.
+     * @param itemId The {@link com.heisenbergenigma.items.ItemCatalog} id of the item to add to the inventory.
      */
-    public void addItemToInventory(Item item) {
-        inventory.addItem(item);
+    public void addItemToInventory(int itemId) {
+        inventory.addItem(itemId);
 
     }
 
@@ -69,38 +96,31 @@ public class Player {
     }
 
     /**
-     * Moves the player in a specified direction.
+     * Moves the player by the given number of rows and columns, keeping them inside
+     * their area.
      *
-     * @param direction The direction in which the player moves.
+     * @param rowStep The rows to move, negative to go North.
+     * @param colStep The columns to move, negative to go West.
      */
-    public void movePlayer(String direction) {
-        switch (direction.toLowerCase()) {
-            case "gn":
-                playerPosX = Math.max(playerPosX - 1, 0);
-                break; // Go North
-            case "gs":
-                playerPosX = Math.min(playerPosX + 1, 2);
-                break; // Go South
-            case "ge":
-                playerPosY = Math.min(playerPosY + 1, 2);
-                break; // Go East
-            case "gw":
-                playerPosY = Math.max(playerPosY - 1, 0);
-                break; // Go West
-            case "inventory":
-                if (inventory != null) {
-                    inventory.displayInventory();
-                    GameUtils.promptToProceed();
-                } else {
-                    System.out.println("Inventory not available.");
-                    GameUtils.promptToProceed();
-
-                }
-                break;
-
-            default:
-                System.out.println("Invalid direction.");
+    public void move(int rowStep, int colStep) {
+        playerPosX = Math.max(0, Math.min(playerPosX + rowStep, areaRows - 1));
+        playerPosY = Math.max(0, Math.min(playerPosY + colStep, areaCols - 1));
+    }
 
+    /**
+     * Shows the contents of the player's inventory and waits for them to proceed,
+     * unless they typed more commands after this one on the same line, which then
+     * run straight on.
+     */
+    public void showInventory() {
+        if (inventory != null) {
+            inventory.displayInventory();
+        } else {
+            GameConsole.out().println("Inventory not available.");
+        }
+        // Reading the answer to the prompt would drop the commands still queued
+        if (!GameConsole.reader().hasQueuedCommand()) {
+            GameUtils.promptToProceed();
         }
     }
 
@@ -108,7 +128,23 @@ public class Player {
      * Prints the current position of the player.
      */
     public void printCurrentPosition() {
-        System.out.println("You are in cell " + (playerPosX + 1) + "," + (playerPosY + 1));
+        PrintStream out = GameConsole.out();
+        out.print("You are in cell ");
+        printNumber(out, playerPosX + 1);
+        out.write(',');
+        printNumber(out, playerPosY + 1);
+        out.println();
+    }
+
+    // Writes a positive number digit by digit, so printing the position every turn creates no String
+    private static void printNumber(PrintStream out, int number) {
+        int divisor = 1;
+        while (number / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.write('0' + number / divisor % 10);
+        }
     }
 
     /**
@@ -154,13 +190,4 @@ public class Player {
     public UUID getPlayerId() {
         return playerId;
     }
-
-    /**
-     * Returns the current instance of the Player.
-     *
-     * @return The current Player instance.
-     */
-    public static Player currentPlayer() {
-        return instance;
-    }
 }
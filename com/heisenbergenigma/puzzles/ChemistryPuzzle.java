@@ -1,14 +1,24 @@
 package com.heisenbergenigma.puzzles;
 
-import com.heisenbergenigma.ui.UiManager;
+import com.heisenbergenigma.main.GameState;
 
 public class ChemistryPuzzle extends Puzzle {
-    public ChemistryPuzzle(String name) {
-        super(name);
+    public ChemistryPuzzle(String name, GameState gameState) {
+        super(name, gameState);
     }
 
     @Override
-    public boolean solvePuzzle() {
-        return false;
+    public PuzzleStep start(PuzzleContext ctx) {
+        return ctx.reply(PuzzleStatus.ABANDONED);
+    }
+
+    @Override
+    protected PuzzleStep onProceed(PuzzleContext ctx) {
+        return ctx.reply(PuzzleStatus.ABANDONED);
+    }
+
+    @Override
+    protected PuzzleStep onAnswer(PuzzleContext ctx, String line) {
+        return ctx.reply(PuzzleStatus.ABANDONED);
     }
 }
@@ -1,13 +1,10 @@
 package com.heisenbergenigma.puzzles;
 
-import com.heisenbergenigma.items.Item;
+import com.heisenbergenigma.commands.CommandRegistry;
+import com.heisenbergenigma.items.ItemCatalog;
 import com.heisenbergenigma.main.GameState;
-import com.heisenbergenigma.main.MainGame;
 import com.heisenbergenigma.player.Player;
-import com.heisenbergenigma.ui.UiManager;
 import com.heisenbergenigma.utils.GameUtils;
-import com.heisenbergenigma.utils.Narrator;
-import org.ietf.jgss.GSSManager;
 
 /**
  * The HiddenCodePuzzle class extends the Puzzle class and represents a puzzle
@@ -17,91 +14,117 @@ import org.ietf.jgss.GSSManager;
 public class HiddenCodePuzzle extends Puzzle {
     private String paperText;
     private String correctCode;
-    private boolean isDrawerUnlocked;
+    // True while the puzzle waits for the player to type the drawer's code
+    private boolean enteringCode;
+    // Options offered to the player by the paper and the drawer
+    private final CommandRegistry<PuzzleCommand> options = new CommandRegistry<>();
 
 
     /**
      * Constructs a new HiddenCodePuzzle with predefined paper text and the correct code
      * needed to unlock a secret drawer.
+     *
+     * @param gameState The state of the playthrough this puzzle belongs to.
      */
-    public HiddenCodePuzzle() {
-        super("SecretDrawerPuzzle");
+    public HiddenCodePuzzle(GameState gameState) {
+        super("SecretDrawerPuzzle", gameState);
         this.paperText = "Upon careful examination of " + GameUtils.ANSI_BLUE + "Section 4" + GameUtils.ANSI_RESET + " of the legal statute, \nit becomes evident that there are several key points to consider. \nFirstly," + GameUtils.ANSI_BLUE + " Article 7" + GameUtils.ANSI_RESET + " outlines the primary obligations and rights. \nMoreover," + GameUtils.ANSI_BLUE + "the third paragraph" + GameUtils.ANSI_RESET + " elaborates on the specifics of compliance.\n Notably," + GameUtils.ANSI_BLUE + "in subsection 2" + GameUtils.ANSI_RESET + ", the details become particularly intricate, highlighting the complexities of this case.";
         this.correctCode = "4732";
-        this.isDrawerUnlocked = false;
+        options.register("read", this::readPaper);
+        options.register("try", this::askForCode);
+        options.register("exit", this::leave);
     }
 
     /**
-     * Solves the hidden code puzzle. The player is presented with a paper text and
-     * must choose to read it, attempt to unlock the drawer, or exit. Correctly
-     * deciphering the code and unlocking the drawer grants a reward and advances
-     * the game state.
+     * Opens the hidden code puzzle. After agreeing to proceed, the player is presented
+     * with a paper text and must choose to read it, attempt to unlock the drawer, or
+     * exit. Correctly deciphering the code and unlocking the drawer grants a reward
+     * and advances the game state.
      *
-     * @return boolean indicating whether the puzzle was successfully solved.
+     * @param ctx The context of the player solving the puzzle.
+     * @return The first step of the puzzle.
      */
     @Override
-    public boolean solvePuzzle() {
+    public PuzzleStep start(PuzzleContext ctx) {
         // Check if the hint from the cleaner has been received, which is required to solve the puzzle.
-        if (!GameState.isCleanerHintReceived()) {
-            return false;
+        if (!gameState.isCleanerHintReceived()) {
+            return ctx.reply(PuzzleStatus.ABANDONED);
         }
+        enteringCode = false;
         // Prompt the player to proceed with the puzzle.
-        GameUtils.promptToProceed();
+        return promptToProceed(ctx);
+    }
+
+    @Override
+    protected PuzzleStep onProceed(PuzzleContext ctx) {
         // Narrate the discovery of a curious paper in the library and provide options to the player.
-        Narrator.narrate("In the library, you find a curious paper. Do you want to 'read' the paper or 'try' to unlock the drawer? (Type 'read', 'try', or 'exit')");
-        // Initialize UI manager for handling user input.
-        UiManager uiManager = new UiManager(MainGame.getInstance());
-        String userResponse;
-        // Continue the loop until the drawer is unlocked.
-        while (!isDrawerUnlocked) {
-            // Get user input and process it in lowercase.
-            userResponse = uiManager.getUserInput().toLowerCase();
-            // Handle different user responses.
-            switch (userResponse) {
-                case "read":
-                    // Narrate the contents of the paper and provide further options to the player.
-                    Narrator.narrate(paperText);
-                    Narrator.narrate(GameUtils.ANSI_GREEN + "Mmmm , There is some marked text" + GameUtils.ANSI_RESET);
-                    Narrator.narrate("Do you want to 'try' to unlock the drawer or 'exit'?");
-                    break;
-                case "try":
-                    // Prompt the player to enter the code to unlock the drawer.
-                    Narrator.narrate("Enter the code to unlock the drawer:");
-                    String codeAttempt = uiManager.getUserInput();
-                    // Check if the entered code is correct.
-                    if (codeAttempt.equals(correctCode)) {
-                        // Narrate the success of unlocking the drawer and update the game state.
-                        Narrator.narrate(GameUtils.ANSI_GREEN + "The code works! The drawer unlocks, revealing its contents." + GameUtils.ANSI_RESET);
-                        isDrawerUnlocked = true;
-                        GameState.setHiddenCodePuzzleSolved(true);
-                        this.setSolved(true);
-                        // Reward the player with items for solving the puzzle.
-                        Player player = Player.currentPlayer();
-                        Item rewardItem = new Item("GPS Device", "A sophisticated GPS device,");
-                        Item rewardItem2 = new Item("Note", "34.0522° N, 106.2436° W");
-                        player.addItemToInventory(rewardItem2);
-                        player.addItemToInventory(rewardItem);
-                        // Narrate the discovery inside the drawer.
-                        Narrator.narrate(GameUtils.ANSI_YELLOW + "\"Inside the drawer, you find a note and a GPS device. \nThe note reads: 'Coordinates to the heart of the blue empire: 34.0522° N, 106.2436° W\"" + GameUtils.ANSI_RESET);
-                        // Provide a hint for the player to check their inventory.
-                        Narrator.narrate("Hint: Use the next command 'inventory' to view the inventory.");
-                        return true;
-                    } else {
-                        // Inform the player if the entered code is incorrect.
-                        Narrator.narrate("That code doesn't seem to work.");
-                    }
-                    break;
-                case "exit":
-                    // Handle the player's decision to exit the puzzle.
-                    Narrator.narrate("You decide to step away from the paper and drawer.");
-                    return false;
-                default:
-                    // Inform the player of an invalid option and provide valid options.
-                    Narrator.narrate("Invalid option. Type 'read', 'try', or 'exit'.");
-                    break;
-            }
+        ctx.narrate("In the library, you find a curious paper. Do you want to 'read' the paper or 'try' to unlock the drawer? (Type 'read', 'try', or 'exit')");
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+
+    @Override
+    protected PuzzleStep onAnswer(PuzzleContext ctx, String line) {
+        if (enteringCode) {
+            return tryCode(ctx, line);
+        }
+        // Handle the option the player chose, whatever its case.
+        PuzzleCommand option = options.match(line);
+        if (option == null) {
+            // Inform the player of an invalid option and provide valid options.
+            ctx.narrate("Invalid option. Type 'read', 'try', or 'exit'.");
+            return ctx.reply(PuzzleStatus.CONTINUE);
+        }
+        return option.run(ctx);
+    }
+
+    private PuzzleStep readPaper(PuzzleContext ctx) {
+        // Narrate the contents of the paper and provide further options to the player.
+        ctx.narrate(paperText);
+        ctx.narrate(GameUtils.ANSI_GREEN + "Mmmm , There is some marked text" + GameUtils.ANSI_RESET);
+        ctx.narrate("Do you want to 'try' to unlock the drawer or 'exit'?");
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+
+    private PuzzleStep askForCode(PuzzleContext ctx) {
+        // Prompt the player to enter the code to unlock the drawer.
+        ctx.narrate("Enter the code to unlock the drawer:");
+        enteringCode = true;
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+
+    private PuzzleStep leave(PuzzleContext ctx) {
+        // Handle the player's decision to exit the puzzle.
+        ctx.narrate("You decide to step away from the paper and drawer.");
+        return ctx.reply(PuzzleStatus.ABANDONED);
+    }
+
+    /**
+     * Checks the code the player entered for the drawer.
+     *
+     * @param ctx         The context of the player solving the puzzle.
+     * @param codeAttempt The code the player typed.
+     * @return The step produced by the attempt.
+     */
+    private PuzzleStep tryCode(PuzzleContext ctx, String codeAttempt) {
+        enteringCode = false;
+        // Check if the entered code is correct.
+        if (!codeAttempt.equals(correctCode)) {
+            // Inform the player if the entered code is incorrect.
+            ctx.narrate("That code doesn't seem to work.");
+            return ctx.reply(PuzzleStatus.CONTINUE);
         }
-        // Return false if the drawer remains locked after the loop.
-        return false;
+        // Narrate the success of unlocking the drawer and update the game state.
+        ctx.narrate(GameUtils.ANSI_GREEN + "The code works! The drawer unlocks, revealing its contents." + GameUtils.ANSI_RESET);
+        gameState.setHiddenCodePuzzleSolved(true);
+        this.setSolved(true);
+        // Reward the player with items for solving the puzzle.
+        Player player = ctx.getPlayer();
+        player.addItemToInventory(ItemCatalog.COORDINATES_NOTE);
+        player.addItemToInventory(ItemCatalog.GPS_DEVICE);
+        // Narrate the discovery inside the drawer.
+        ctx.narrate(GameUtils.ANSI_YELLOW + "\"Inside the drawer, you find a note and a GPS device. \nThe note reads: 'Coordinates to the heart of the blue empire: 34.0522° N, 106.2436° W\"" + GameUtils.ANSI_RESET);
+        // Provide a hint for the player to check their inventory.
+        ctx.narrate("Hint: Use the next command 'inventory' to view the inventory.");
+        return ctx.reply(PuzzleStatus.SOLVED);
     }
 }
@@ -1,15 +1,8 @@
 package com.heisenbergenigma.puzzles;
 
-import com.heisenbergenigma.items.Item;
+import com.heisenbergenigma.items.ItemCatalog;
 import com.heisenbergenigma.main.GameState;
-import com.heisenbergenigma.main.MainGame;
-import com.heisenbergenigma.player.Player;
-import com.heisenbergenigma.ui.UiManager;
 import com.heisenbergenigma.utils.GameUtils;
-import com.heisenbergenigma.utils.Narrator;
-import org.ietf.jgss.GSSManager;
-
-import java.util.Random;
 
 /**
  * The PinCodePuzzle class extends the Puzzle class and represents a puzzle
@@ -17,26 +10,24 @@ import java.util.Random;
  * allows a maximum number of attempts for the player to guess the correct PIN.
  */
 public class PinCodePuzzle extends Puzzle {
+    // The PIN that opens the safe, the same in every game
+    public static final String SECRET_PIN = "123";
+
     private String secretPin;
     private final int maxAttempts = 8;
+    // Number of wrong guesses made since the puzzle was opened
+    private int attempts;
 
     /**
-     * Constructs a new PinCodePuzzle with a randomly generated 3-digit secret PIN.
-     */
-    public PinCodePuzzle() {
-        super("The Enigma Safe");
-        this.secretPin = "123"; //generateRandomPin(); I am using 123 code  for easy testing, but you can use the method to generate a random number
-    }
-
-    /**
-     * Generates a random 3-digit PIN code.
+     * Constructs a new PinCodePuzzle with a fixed 3-digit secret PIN, so the answers
+     * replayed from a {@link com.heisenbergenigma.utils.SessionJournal} meet the same
+     * PIN they were typed against. A random PIN would have to be kept in the save.
      *
-     * @return A string representing the generated PIN code.
+     * @param gameState The state of the playthrough this puzzle belongs to.
      */
-    private String generateRandomPin() {
-        Random random = new Random();
-        int num = random.nextInt(900) + 100; // Generates a number in the range 100-999
-        return String.valueOf(num);
+    public PinCodePuzzle(GameState gameState) {
+        super("The Enigma Safe", gameState);
+        this.secretPin = SECRET_PIN;
     }
 
     /**
@@ -50,74 +41,88 @@ public class PinCodePuzzle extends Puzzle {
     }
 
     /**
-     * Solves the PIN code puzzle. The player is presented with a digital keypad
-     * and must correctly guess the 3-digit PIN code within a limited number of attempts.
-     * Correctly guessing the code grants a reward and advances the game state.
+     * Opens the PIN code puzzle. After agreeing to proceed, the player is presented
+     * with a digital keypad and must correctly guess the 3-digit PIN code within a
+     * limited number of attempts. Correctly guessing the code grants a reward and
+     * advances the game state.
      *
-     * @return boolean indicating whether the puzzle was successfully solved.
+     * @param ctx The context of the player solving the puzzle.
+     * @return The first step of the puzzle.
      */
     @Override
-    public boolean solvePuzzle() {
+    public PuzzleStep start(PuzzleContext ctx) {
         // Check if the hint from the employee has been received before attempting the puzzle.
-        if (!GameState.isEmployeeHintReceived()) {
-            return false;
+        if (!gameState.isEmployeeHintReceived()) {
+            return ctx.reply(PuzzleStatus.ABANDONED);
         }
+        // Reset the number of attempts made by the player.
+        attempts = 0;
         // Narrate the discovery of an old safe in the storage room.
-        Narrator.narrate("Hidden behind dusty boxes in the storage room, an old safe with a digital keypad challenges you to unlock its secrets.");
+        ctx.narrate("Hidden behind dusty boxes in the storage room, an old safe with a digital keypad challenges you to unlock its secrets.");
         // Prompt the player to proceed with the puzzle.
-        GameUtils.promptToProceed();
-        // Initialize the UI manager for user input.
-        UiManager uiManager = new UiManager(MainGame.getInstance());
-        // Initialize a variable to track the number of attempts made by the player.
-        int attempts = 0;
-        // Narrate the scenario of facing a high-security digital lock on the safe.
-        Narrator.narrate("\"In front of you is a high-security digital lock safeguarding the most confidential files.\n It requires a 3-digit code to unlock.\"");
-        // Loop for the player to attempt to unlock the safe.
-        while (attempts < maxAttempts) {
-            // Prompt the player to enter their guess for the safe's code.
-            Narrator.narrate("Enter your guess (3 digits): ");
-            String guess = uiManager.getUserInput().trim();
+        return promptToProceed(ctx);
+    }
 
-            // Validate the player's input to ensure it's a 3-digit number.
-            if (!isValidGuess(guess)) {
-                System.out.println("Invalid input. Please enter exactly 3 digits.");
-                continue;
-            }
-            // Check if the player's guess matches the secret PIN of the safe.
-            if (guess.equals(secretPin)) {
-                // Confirm the correct guess and unlock the safe.
-                System.out.println(GameUtils.ANSI_GREEN + "Correct! You've unlocked the safe." + GameUtils.ANSI_RESET);
-                Player player = Player.currentPlayer();
-                // Update the game state to reflect the puzzle's completion.
-                GameState.setPinPuzzleSolved(true);
-                this.setSolved(true);
-                // Reward the player with an item for solving the puzzle.
-                Item rewardItem = new Item("Faded Business Card", "An old business card, its edges frayed and colors faded. The name 'Saul Goodman, \nAttorney at Law' is just legible, along with a partially smudged phone number.");
-                player.addItemToInventory(rewardItem);
-                // Narrate the discovery of the faded business card inside the safe.
-                Narrator.narrate(GameUtils.ANSI_YELLOW + "\"You've uncovered a 'Faded Business Card' from within the safe. Though worn with time, the name 'Saul Goodman, Attorney at Law' stands out, \nalong with a phone number that's partially obscured. This could be a vital lead.\"" + GameUtils.ANSI_RESET);
+    @Override
+    protected PuzzleStep onProceed(PuzzleContext ctx) {
+        // Narrate the scenario of facing a high-security digital lock on the safe.
+        ctx.narrate("\"In front of you is a high-security digital lock safeguarding the most confidential files.\n It requires a 3-digit code to unlock.\"");
+        return askForGuess(ctx);
+    }
 
-                return true;
-            } else {
-                // Provide feedback to the player about their incorrect guess.
-                provideFeedback(guess);
-                // Increment the attempts counter.
-                attempts++;
-            }
+    @Override
+    protected PuzzleStep onAnswer(PuzzleContext ctx, String line) {
+        String guess = line.trim();
+        // Validate the player's input to ensure it's a 3-digit number.
+        if (!isValidGuess(guess)) {
+            ctx.println("Invalid input. Please enter exactly 3 digits.");
+            return askForGuess(ctx);
+        }
+        // Check if the player's guess matches the secret PIN of the safe.
+        if (guess.equals(secretPin)) {
+            // Confirm the correct guess and unlock the safe.
+            ctx.println(GameUtils.ANSI_GREEN + "Correct! You've unlocked the safe." + GameUtils.ANSI_RESET);
+            // Update the game state to reflect the puzzle's completion.
+            gameState.setPinPuzzleSolved(true);
+            this.setSolved(true);
+            // Reward the player with an item for solving the puzzle.
+            ctx.getPlayer().addItemToInventory(ItemCatalog.FADED_BUSINESS_CARD);
+            // Narrate the discovery of the faded business card inside the safe.
+            ctx.narrate(GameUtils.ANSI_YELLOW + "\"You've uncovered a 'Faded Business Card' from within the safe. Though worn with time, the name 'Saul Goodman, Attorney at Law' stands out, \nalong with a phone number that's partially obscured. This could be a vital lead.\"" + GameUtils.ANSI_RESET);
+            return ctx.reply(PuzzleStatus.SOLVED);
         }
-        // Inform the player that they have run out of attempts and the safe remains locked.
-        Narrator.narrate(GameUtils.ANSI_RED + "You've run out of attempts! The safe remains locked." + GameUtils.ANSI_RESET);
-        return false;
+        // Provide feedback to the player about their incorrect guess.
+        provideFeedback(ctx, guess);
+        // Increment the attempts counter.
+        attempts++;
+        if (attempts >= maxAttempts) {
+            // Inform the player that they have run out of attempts and the safe remains locked.
+            ctx.narrate(GameUtils.ANSI_RED + "You've run out of attempts! The safe remains locked." + GameUtils.ANSI_RESET);
+            return ctx.reply(PuzzleStatus.ABANDONED);
+        }
+        return askForGuess(ctx);
     }
 
+    /**
+     * Asks the player for their guess of the safe's code.
+     *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The step waiting for the player's guess.
+     */
+    private PuzzleStep askForGuess(PuzzleContext ctx) {
+        ctx.narrate("Enter your guess (3 digits): ");
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
 
     /**
      * Provides feedback on the player's guess, indicating how many digits are correctly
-     * placed and how many are correct but in the wrong place.
+     * placed and how many are correct but in the wrong place. It is package-private
+     * so the benchmarks can measure it.
      *
+     * @param ctx   The context the feedback is written to.
      * @param guess The guessed PIN code.
      */
-    private void provideFeedback(String guess) {
+    void provideFeedback(PuzzleContext ctx, String guess) {
         int correctPlace = 0;
         int correctNumber = 0;
 
@@ -130,8 +135,8 @@ public class PinCodePuzzle extends Puzzle {
             }
         }
 
-        System.out.println(GameUtils.ANSI_GREEN + "Correct number in correct place: " + correctPlace + GameUtils.ANSI_RESET);
-        System.out.println(GameUtils.ANSI_RED + "Correct number in wrong place: " + correctNumber + GameUtils.ANSI_RESET);
+        ctx.println(GameUtils.ANSI_GREEN + "Correct number in correct place: " + correctPlace + GameUtils.ANSI_RESET);
+        ctx.println(GameUtils.ANSI_RED + "Correct number in wrong place: " + correctNumber + GameUtils.ANSI_RESET);
     }
 
 }
@@ -1,22 +1,40 @@
 package com.heisenbergenigma.puzzles;
 
+import com.heisenbergenigma.interfaces.CellContent;
+import com.heisenbergenigma.main.GameState;
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.utils.GameUtils;
+
 /**
  * The Puzzle class is an abstract class that serves as a template for various puzzles
  * in the game. It holds common properties and functionalities that all puzzles share,
- * such as a name and a solved status, along with an abstract method for solving the puzzle.
+ * such as a name and a solved status.
+ * <p>
+ * Puzzles are played in steps: {@link #start(PuzzleContext)} opens the puzzle and every
+ * line the player types is handed to {@link #onInput(PuzzleContext, String)}. Each step
+ * returns the text to show and whether the puzzle goes on, so a caller never has to
+ * block a thread while a player thinks. {@link #solvePuzzle(Player)} plays a whole puzzle
+ * on the current session's console for callers that can block.
  */
-public abstract class Puzzle {
+public abstract class Puzzle implements CellContent {
     private final String name;
     private boolean isSolved = false;
+    // State of the playthrough this puzzle reads prerequisites from and reports progress to
+    protected final GameState gameState;
+    // True while the puzzle waits for the player's yes/no before its main part
+    private boolean awaitingProceed;
 
     /**
      * Constructs a Puzzle with a specified name. The puzzle is initially unsolved.
      *
-     * @param name The name of the puzzle.
+     * @param name      The name of the puzzle.
+     * @param gameState The state of the playthrough this puzzle belongs to.
      */
-    public Puzzle(String name) {
+    public Puzzle(String name, GameState gameState) {
         this.name = name;
         this.isSolved = false;
+        this.gameState = gameState;
     }
 
     /**
@@ -47,13 +65,116 @@ public abstract class Puzzle {
     }
 
     /**
-     * An abstract method that must be implemented by derived classes to define
-     * the logic for solving the puzzle. Returns a boolean indicating the success
-     * or failure of solving the puzzle.
+     * Plays the puzzle when the player stands on its cell, unless it is already solved.
+     *
+     * @param player The player standing on the cell.
+     */
+    @Override
+    public void visit(Player player) {
+        if (!isSolved) {
+            solvePuzzle(player);
+        }
+    }
+
+    /**
+     * Asks for the player's attention until the puzzle is solved.
+     *
+     * @return boolean indicating if the puzzle is not solved yet.
+     */
+    @Override
+    public boolean wantsAttention() {
+        return !isSolved;
+    }
+
+    /**
+     * Opens the puzzle. Implementations check their prerequisites, introduce the
+     * puzzle and usually finish with {@link #promptToProceed(PuzzleContext)}.
+     *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The first step of the puzzle, {@link PuzzleStatus#ABANDONED} if it cannot be played yet.
+     */
+    public abstract PuzzleStep start(PuzzleContext ctx);
+
+    /**
+     * Hands one line of the player's input to the puzzle.
+     *
+     * @param ctx  The context of the player solving the puzzle.
+     * @param line The line the player typed.
+     * @return The step produced by the input.
+     */
+    public final PuzzleStep onInput(PuzzleContext ctx, String line) {
+        if (!awaitingProceed) {
+            return onAnswer(ctx, line);
+        }
+        Boolean proceed = GameUtils.proceedAnswer(line);
+        if (proceed == Boolean.TRUE) {
+            awaitingProceed = false;
+            ctx.clearScreen();
+            return onProceed(ctx);
+        } else if (proceed == Boolean.FALSE) {
+            awaitingProceed = false;
+            return ctx.reply(PuzzleStatus.QUIT);
+        }
+        ctx.println("Invalid input. Please type 'yes' or 'no'.");
+        ctx.print(GameUtils.PROCEED_PROMPT);
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+
+    /**
+     * Asks the player whether to proceed. A "yes" continues with
+     * {@link #onProceed(PuzzleContext)}, a "no" quits the game.
      *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The step waiting for the player's answer.
+     */
+    protected PuzzleStep promptToProceed(PuzzleContext ctx) {
+        awaitingProceed = true;
+        ctx.print(GameUtils.PROCEED_PROMPT);
+        return ctx.reply(PuzzleStatus.CONTINUE);
+    }
+
+    /**
+     * Continues the puzzle once the player agreed to proceed.
+     *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The step presenting the main part of the puzzle.
+     */
+    protected abstract PuzzleStep onProceed(PuzzleContext ctx);
+
+    /**
+     * Handles one line of the player's input in the main part of the puzzle.
+     *
+     * @param ctx  The context of the player solving the puzzle.
+     * @param line The line the player typed.
+     * @return The step produced by the input.
+     */
+    protected abstract PuzzleStep onAnswer(PuzzleContext ctx, String line);
+
+    /**
+     * Plays the whole puzzle on the current session's console, blocking until the
+     * puzzle is solved or abandoned.
+     *
+     * @param player The player solving the puzzle, who receives its rewards.
      * @return boolean indicating whether the puzzle was successfully solved.
      */
-    public abstract boolean solvePuzzle();
+    public boolean solvePuzzle(Player player) {
+        PuzzleContext ctx = new PuzzleContext(player);
+        PuzzleStep step = start(ctx);
+        while (true) {
+            GameConsole.out().print(step.getOutput());
+            switch (step.getStatus()) {
+                case SOLVED:
+                    return true;
+                case ABANDONED:
+                    return false;
+                case QUIT:
+                    GameUtils.exitGame();
+                    return false;
+                default:
+                    step = onInput(ctx, GameConsole.reader().readLine());
+            }
+        }
+    }
 
 
 }
@@ -0,0 +1,19 @@
+package com.heisenbergenigma.puzzles;
+
+/**
+ * The PuzzleCommand interface is implemented by the actions a player can type while
+ * solving a puzzle, such as reading a clue or leaving. Puzzles register them by verb
+ * in a {@link com.heisenbergenigma.commands.CommandRegistry}.
+ */
+@FunctionalInterface
+public interface PuzzleCommand {
+
+    /**
+     * Runs the command.
+     *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The step produced by the command.
+     */
+    PuzzleStep run(PuzzleContext ctx);
+
+}
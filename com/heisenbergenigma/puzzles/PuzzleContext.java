@@ -0,0 +1,81 @@
+package com.heisenbergenigma.puzzles;
+
+import com.heisenbergenigma.player.Player;
+import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.utils.Narrator;
+
+/**
+ * The PuzzleContext class carries what a puzzle needs while it is being played:
+ * the player it rewards and the output collected for the current step. Puzzles
+ * write into the context instead of the console, so the caller decides when and
+ * where a step's output is sent.
+ */
+public class PuzzleContext {
+    private final Player player;
+    private final StringBuilder output;
+
+    /**
+     * Constructs a PuzzleContext for the given player.
+     *
+     * @param player The player solving the puzzle.
+     */
+    public PuzzleContext(Player player) {
+        this.player = player;
+        this.output = new StringBuilder();
+    }
+
+    /**
+     * Returns the player solving the puzzle.
+     *
+     * @return The player to reward.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Adds text to the output of the current step.
+     *
+     * @param text The text to show the player.
+     */
+    public void print(String text) {
+        output.append(text);
+    }
+
+    /**
+     * Adds a line of text to the output of the current step.
+     *
+     * @param text The line to show the player.
+     */
+    public void println(String text) {
+        output.append(text).append(System.lineSeparator());
+    }
+
+    /**
+     * Adds a narrated message to the output of the current step.
+     *
+     * @param message The message to be narrated.
+     */
+    public void narrate(String message) {
+        println(Narrator.format(message));
+    }
+
+    /**
+     * Adds the text that clears the player's screen to the output of the current step.
+     */
+    public void clearScreen() {
+        output.append(GameUtils.CLEAR_SCREEN);
+    }
+
+    /**
+     * Ends the current step, handing its collected output over with the given status.
+     *
+     * @param status The status of the puzzle after this step.
+     * @return The finished step.
+     */
+    public PuzzleStep reply(PuzzleStatus status) {
+        PuzzleStep step = new PuzzleStep(status, output.toString());
+        output.setLength(0);
+        return step;
+    }
+}
@@ -0,0 +1,24 @@
+package com.heisenbergenigma.puzzles;
+
+/**
+ * The PuzzleStatus enum describes where a puzzle stands after it has handled a step.
+ */
+public enum PuzzleStatus {
+    // The puzzle is waiting for the player's next line of input
+    CONTINUE,
+    // The player solved the puzzle
+    SOLVED,
+    // The puzzle ended without being solved, the player is back on the map
+    ABANDONED,
+    // The player asked to leave the game altogether
+    QUIT;
+
+    /**
+     * Checks whether the puzzle is over and no more input should be sent to it.
+     *
+     * @return boolean indicating if the puzzle has finished.
+     */
+    public boolean isFinished() {
+        return this != CONTINUE;
+    }
+}
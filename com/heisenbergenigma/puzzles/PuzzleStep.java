@@ -0,0 +1,39 @@
+package com.heisenbergenigma.puzzles;
+
+/**
+ * The PuzzleStep class is the result of one step of a puzzle: the text to show the
+ * player and the status the puzzle is in afterwards.
+ */
+public class PuzzleStep {
+    private final PuzzleStatus status;
+    private final String output;
+
+    /**
+     * Constructs a PuzzleStep with the given status and output.
+     *
+     * @param status The status of the puzzle after this step.
+     * @param output The text to show the player.
+     */
+    public PuzzleStep(PuzzleStatus status, String output) {
+        this.status = status;
+        this.output = output;
+    }
+
+    /**
+     * Returns the status of the puzzle after this step.
+     *
+     * @return The status of the puzzle.
+     */
+    public PuzzleStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the text produced by this step, ready to be written to the player.
+     *
+     * @return The output of the step.
+     */
+    public String getOutput() {
+        return output;
+    }
+}
@@ -1,13 +1,9 @@
 package com.heisenbergenigma.puzzles;
 
-import com.heisenbergenigma.items.Item;
+import com.heisenbergenigma.items.ItemCatalog;
 import com.heisenbergenigma.main.GameState;
-import com.heisenbergenigma.main.MainGame;
 import com.heisenbergenigma.player.Player;
-import com.heisenbergenigma.ui.UiManager;
 import com.heisenbergenigma.utils.GameUtils;
-import com.heisenbergenigma.utils.Narrator;
-import org.ietf.jgss.GSSManager;
 
 import java.util.List;
 import java.util.ArrayList;
@@ -33,12 +29,16 @@ public class QAPuzzle extends Puzzle {
     }
 
     private List<Question> questions;
+    // Index of the question the player is currently answering
+    private int currentQuestion;
 
     /**
      * Constructs a new QAPuzzle with an empty list of questions.
+     *
+     * @param gameState The state of the playthrough this puzzle belongs to.
      */
-    public QAPuzzle() {
-        super("Q&A Puzzle");
+    public QAPuzzle(GameState gameState) {
+        super("Q&A Puzzle", gameState);
         this.questions = new ArrayList<>();
 
     }
@@ -55,66 +55,93 @@ public class QAPuzzle extends Puzzle {
     }
 
     /**
-     * Solves the Q&A puzzle. The player is presented with a series of questions and
-     *
-     * must answer each one correctly. Successfully answering all questions grants
-     * a reward and advances the game state.
+     * Opens the Q&A puzzle. After agreeing to proceed, the player is presented with a
+     * series of questions and must answer each one correctly. Successfully answering
+     * all questions grants a reward and advances the game state.
      *
-     * @return boolean indicating whether the puzzle was successfully solved.
+     * @param ctx The context of the player solving the puzzle.
+     * @return The first step of the puzzle.
      */
     @Override
-    public boolean solvePuzzle() {
+    public PuzzleStep start(PuzzleContext ctx) {
         // Check if the customer's hint has been received and if there are questions to answer.
-        if (!GameState.isCustomerHintReceived() || questions.isEmpty()) {
-            return false;
+        if (!gameState.isCustomerHintReceived() || questions.isEmpty()) {
+            return ctx.reply(PuzzleStatus.ABANDONED);
         }
-        // Initialize the UI manager for user interaction.
-        UiManager uiManager = new UiManager(MainGame.getInstance());
+        currentQuestion = 0;
         // Narrate an introduction to the challenge of the puzzle.
-        Narrator.narrate("Gathering your resolve, you step up to the challenge. The answers to the 'Breaking Bad'-themed puzzle stand between you and the secrets behind the door. It's time to begin.");
+        ctx.narrate("Gathering your resolve, you step up to the challenge. The answers to the 'Breaking Bad'-themed puzzle stand between you and the secrets behind the door. It's time to begin.");
         // Prompt the player to proceed with the puzzle.
-        GameUtils.promptToProceed();
-        // Iterate through each question in the puzzle.
-        for (Question question : questions) {
-            // Display the question to the player.
-            System.out.println(question.query);
-            int choiceIndex = 1;
-            // Display each choice for the current question.
-            for (String choice : question.choices) {
-                System.out.println(choiceIndex++ + ": " + choice);
-            }
-            // Ask the player to input their answer.
-            System.out.print("Your answer (number): ");
-            int answerIndex = uiManager.getIntInput() - 1;
-            // Check if the player's answer is incorrect.
-            if (!question.choices.get(answerIndex).equals(question.correctAnswer)) {
-                System.out.println("Incorrect answer. Puzzle failed.");
-                return false;
-            }
+        return promptToProceed(ctx);
+    }
+
+    @Override
+    protected PuzzleStep onProceed(PuzzleContext ctx) {
+        return askQuestion(ctx);
+    }
+
+    @Override
+    protected PuzzleStep onAnswer(PuzzleContext ctx, String line) {
+        Question question = questions.get(currentQuestion);
+        int answerIndex;
+        try {
+            answerIndex = Integer.parseInt(line.trim()) - 1;
+        } catch (NumberFormatException e) {
+            answerIndex = -1;
+        }
+        // Ask again if the input is not the number of one of the choices.
+        if (answerIndex < 0 || answerIndex >= question.choices.size()) {
+            ctx.print("Invalid input. Please enter a number: ");
+            return ctx.reply(PuzzleStatus.CONTINUE);
+        }
+        // Check if the player's answer is incorrect.
+        if (!question.choices.get(answerIndex).equals(question.correctAnswer)) {
+            ctx.println("Incorrect answer. Puzzle failed.");
+            return ctx.reply(PuzzleStatus.ABANDONED);
+        }
+        // Move on to the next question, if any.
+        currentQuestion++;
+        if (currentQuestion < questions.size()) {
+            return askQuestion(ctx);
         }
         // Confirm that all answers are correct and the puzzle is solved.
-        Narrator.narrate(GameUtils.ANSI_GREEN + "All answers correct! Puzzle solved." + GameUtils.ANSI_RESET);
+        ctx.narrate(GameUtils.ANSI_GREEN + "All answers correct! Puzzle solved." + GameUtils.ANSI_RESET);
         // Get the current player and update the game state to reflect the puzzle's completion.
-        Player player = Player.currentPlayer();
-        GameState.setQAPuzzleSolved(true);
+        Player player = ctx.getPlayer();
+        gameState.setQAPuzzleSolved(true);
         this.setSolved(true);
         // Determine and provide the appropriate reward based on whether another puzzle is solved.
-        if (GameState.isLicensePuzzleSolved()) {
+        if (gameState.isLicensePuzzleSolved()) {
             // Reward the player with a missing page if the license puzzle is solved.
-            Item rewardItem = new Item("Missing Page", "A tattered page that seems to fit perfectly in the 'Cryptic Notebook'. It's filled with intricate details and a distinct address.");
-            player.addItemToInventory(rewardItem);
-            Narrator.narrate(GameUtils.ANSI_YELLOW + "\"You find a worn page hidden among the clutter. Its edges are frayed, blending with the debris. Carefully, you flatten it out. The handwriting on the page matches the 'Cryptic Notebook.'\n As you read, a clear address emerges among the cryptic writings. It's unmistakable – Saul Goodman's office. Could this be the clue you've been searching for?\"" + GameUtils.ANSI_RESET);
+            player.addItemToInventory(ItemCatalog.MATCHED_MISSING_PAGE);
+            ctx.narrate(GameUtils.ANSI_YELLOW + "\"You find a worn page hidden among the clutter. Its edges are frayed, blending with the debris. Carefully, you flatten it out. The handwriting on the page matches the 'Cryptic Notebook.'\n As you read, a clear address emerges among the cryptic writings. It's unmistakable – Saul Goodman's office. Could this be the clue you've been searching for?\"" + GameUtils.ANSI_RESET);
 
         } else {
             // Reward the player with a missing page regardless.
-            Item rewardItem = new Item("Missing Page", "A tattered page. It's filled with intricate details and a distinct address.");
-            player.addItemToInventory(rewardItem);
-            Narrator.narrate(GameUtils.ANSI_YELLOW + "\"You find a worn page hidden among the clutter. Its edges are frayed, blending with the debris. Carefully, you flatten it out.\n As you read, a clear address emerges among the cryptic writings. It's unmistakable – SG's office. Could this be the clue you've been searching for?\"" + GameUtils.ANSI_RESET);
+            player.addItemToInventory(ItemCatalog.MISSING_PAGE);
+            ctx.narrate(GameUtils.ANSI_YELLOW + "\"You find a worn page hidden among the clutter. Its edges are frayed, blending with the debris. Carefully, you flatten it out.\n As you read, a clear address emerges among the cryptic writings. It's unmistakable – SG's office. Could this be the clue you've been searching for?\"" + GameUtils.ANSI_RESET);
 
         }
-        // Return true indicating the puzzle was successfully solved.
-        return true;
+        return ctx.reply(PuzzleStatus.SOLVED);
+    }
 
+    /**
+     * Displays the current question with its numbered choices and asks for an answer.
+     *
+     * @param ctx The context of the player solving the puzzle.
+     * @return The step waiting for the player's answer.
+     */
+    private PuzzleStep askQuestion(PuzzleContext ctx) {
+        Question question = questions.get(currentQuestion);
+        ctx.println(question.query);
+        int choiceIndex = 1;
+        // Display each choice for the current question.
+        for (String choice : question.choices) {
+            ctx.println(choiceIndex++ + ": " + choice);
+        }
+        // Ask the player to input their answer.
+        ctx.print("Your answer (number): ");
+        return ctx.reply(PuzzleStatus.CONTINUE);
     }
 
 }
@@ -0,0 +1,241 @@
+package com.heisenbergenigma.server;
+
+import com.heisenbergenigma.main.MainGame;
+import com.heisenbergenigma.main.SessionIdleException;
+import com.heisenbergenigma.ui.GameConsole;
+import com.heisenbergenigma.ui.OutputSink;
+import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.utils.MappedSaveStore;
+import com.heisenbergenigma.utils.SaveLoadManager;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameServer class hosts many players in one process over a telnet-style line
+ * protocol. Every accepted connection gets its own {@link GameConsole} over the
+ * socket's streams and runs a complete {@link MainGame} session on its own virtual
+ * thread, so an idle player costs a parked virtual thread rather than an OS thread.
+ * <p>
+ * The saves of all the players are kept in one {@link MappedSaveStore} rather than
+ * a file each, shared by every session through one {@link SaveLoadManager}.
+ * <p>
+ * A player who types nothing for a while in the middle of a game is hibernated: the
+ * game unwinds, leaving its state in the save and the journal, and the session waits
+ * for the player's next line holding little more than the connection. The line
+ * rebuilds the game and is played as if the game had never been put aside.
+ * <p>
+ * Run it with {@code java com.heisenbergenigma.server.GameServer [port] [hibernate-after-seconds]} and connect
+ * with {@code telnet localhost 4000}.
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 4000;
+    // Time a player can stay idle in a game before it is hibernated
+    public static final int DEFAULT_HIBERNATE_AFTER_MILLIS = 5 * 60 * 1000;
+    // Pending connections the OS queues while the acceptor is busy
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    private final int port;
+    private final Path saveDirectory;
+    private final int hibernateAfterMillis;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger hibernatedSessions = new AtomicInteger();
+    private final AtomicLong sessionCounter = new AtomicLong();
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private MappedSaveStore store;
+    private SaveLoadManager saves;
+
+    /**
+     * Constructs a GameServer listening on the given port and keeping its saves in
+     * the {@value SaveLoadManager#DEFAULT_DIRECTORY} directory.
+     *
+     * @param port The TCP port to listen on, or 0 to pick a free one.
+     */
+    public GameServer(int port) {
+        this(port, Paths.get(SaveLoadManager.DEFAULT_DIRECTORY), DEFAULT_HIBERNATE_AFTER_MILLIS);
+    }
+
+    /**
+     * Constructs a GameServer listening on the given port.
+     *
+     * @param port                 The TCP port to listen on, or 0 to pick a free one.
+     * @param saveDirectory        The directory of the save store and the journals.
+     * @param hibernateAfterMillis The time a player can stay idle in a game before it is hibernated, 0 for never.
+     */
+    public GameServer(int port, Path saveDirectory, int hibernateAfterMillis) {
+        this.port = port;
+        this.saveDirectory = saveDirectory;
+        this.hibernateAfterMillis = hibernateAfterMillis;
+    }
+
+    /**
+     * Opens the save store and the listening socket and starts accepting players on
+     * a background thread. Background music is disabled for the process, as it would
+     * play on the server.
+     *
+     * @throws IOException if the save store cannot be opened or the port cannot be bound.
+     */
+    public void start() throws IOException {
+        GameUtils.setAudioEnabled(false);
+        store = MappedSaveStore.open(saveDirectory);
+        saves = new SaveLoadManager(saveDirectory, store);
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        acceptor = Thread.ofPlatform().name("game-server-acceptor").start(this::acceptLoop);
+    }
+
+    /**
+     * Stops accepting new players and writes the saves stored so far to disk.
+     * Sessions already running continue until their players disconnect.
+     *
+     * @throws IOException if the listening socket cannot be closed.
+     */
+    public void stop() throws IOException {
+        serverSocket.close();
+        store.force();
+    }
+
+    /**
+     * Blocks until the server stops accepting players.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The bound TCP port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of players currently connected.
+     *
+     * @return The number of running sessions.
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Returns the number of connected players whose game is hibernated.
+     *
+     * @return The number of hibernated sessions.
+     */
+    public int getHibernatedSessions() {
+        return hibernatedSessions.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual()
+                        .name("session-" + sessionCounter.incrementAndGet())
+                        .start(() -> runSession(socket));
+            } catch (SocketException e) {
+                // The listening socket was closed by stop()
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Runs one player's game over the given connection, from the main menu until the
+     * player leaves or disconnects.
+     *
+     * @param socket The player's connection.
+     */
+    private void runSession(Socket socket) {
+        activeSessions.incrementAndGet();
+        try (socket) {
+            OutputSink sink = OutputSink.of(socket.getOutputStream());
+            // Lets a hibernated session wait for the player's next byte without taking it from the game
+            PushbackInputStream input = new PushbackInputStream(socket.getInputStream());
+            socket.setSoTimeout(hibernateAfterMillis);
+            // Telnet clients are ANSI terminals, which the game's colours already rely on
+            GameConsole.bind(new GameConsole(input, sink, true));
+            try {
+                new MainGame(saves).start();
+            } catch (SessionIdleException e) {
+                hibernate(socket, input, e);
+            }
+        } catch (NoSuchElementException | IOException | UncheckedIOException e) {
+            // The player closed the connection while the game was waiting for input
+        } finally {
+            GameConsole.unbind();
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Keeps the session of an idle player with nothing but its connection and console
+     * until the player types again, then rebuilds their game, as many times as they
+     * go idle.
+     *
+     * @param socket The player's connection.
+     * @param input  The stream the player's input is read from.
+     * @param idle   The signal the game was put aside with, naming its player.
+     * @throws IOException if the connection fails.
+     */
+    private void hibernate(Socket socket, PushbackInputStream input, SessionIdleException idle) throws IOException {
+        while (true) {
+            hibernatedSessions.incrementAndGet();
+            GameConsole.releaseBuffers();
+            try {
+                socket.setSoTimeout(0);
+                int next = input.read();
+                if (next < 0) {
+                    return;
+                }
+                input.unread(next);
+                socket.setSoTimeout(hibernateAfterMillis);
+            } finally {
+                hibernatedSessions.decrementAndGet();
+            }
+            try {
+                new MainGame(saves).resume(idle.getPlayerId(), idle.getPlayerName());
+                return;
+            } catch (SessionIdleException e) {
+                idle = e;
+            } catch (IOException e) {
+                GameConsole.out().println("Your game could not be resumed: " + e.getMessage());
+                GameConsole.flush();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts a GameServer and serves players until the process is stopped.
+     *
+     * @param args optional port to listen on, {@value #DEFAULT_PORT} by default, and optional seconds
+     *             a player can stay idle in a game before it is hibernated, 300 by default.
+     * @throws Exception if the server cannot be started.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int hibernateAfterMillis = args.length > 1 ? Integer.parseInt(args[1]) * 1000 : DEFAULT_HIBERNATE_AFTER_MILLIS;
+        GameServer server = new GameServer(port, Paths.get(SaveLoadManager.DEFAULT_DIRECTORY), hibernateAfterMillis);
+        server.start();
+        System.out.println("The Heisenberg Enigma is listening on port " + server.getPort());
+        server.awaitTermination();
+    }
+}
@@ -0,0 +1,198 @@
+package com.heisenbergenigma.ui;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The FrameBuffer class collects the bytes of one frame of output in a buffer that is
+ * reused for every frame of the session, and hands the frame to an {@link OutputSink}
+ * when flushed. The buffer is allocated by the first write, {@value #INITIAL_SIZE}
+ * bytes long, and doubled when a frame does not fit, up to the capacity it was given;
+ * output that does not fit a buffer of that size is passed on early. A session waiting
+ * at a menu so holds a small buffer, and a session playing turns settles on the size
+ * of its largest frame. It also counts the lines written, which tells a renderer
+ * whether what it drew earlier is still on the player's screen.
+ * <p>
+ * A muted buffer drops its frames instead of delivering them, for output the player
+ * has seen already, such as the turns replayed to rebuild a game. Its lines are still
+ * counted, so a renderer draws in full once the buffer is unmuted.
+ * <p>
+ * A session that will not write for a long time can {@link #release()} the buffer,
+ * it is allocated again by the next write.
+ */
+public class FrameBuffer extends OutputStream {
+    // Largest a buffer grows to, well above a full turn: the map, the narration and the prompt
+    public static final int DEFAULT_CAPACITY = 16 * 1024;
+    // Size a buffer is allocated at, enough for most frames
+    private static final int INITIAL_SIZE = 2 * 1024;
+
+    // Empty buffer of a frame buffer not written to yet, or released
+    private static final byte[] RELEASED = new byte[0];
+
+    private final OutputSink sink;
+    private final int capacity;
+    private byte[] buffer;
+    private int count;
+    private long lines;
+    private boolean muted;
+
+    /**
+     * Constructs a FrameBuffer delivering to the given sink.
+     *
+     * @param sink     The sink frames are delivered to.
+     * @param capacity The size in bytes the reusable buffer may grow to.
+     */
+    public FrameBuffer(OutputSink sink, int capacity) {
+        this.sink = sink;
+        this.capacity = capacity;
+        this.buffer = RELEASED;
+    }
+
+    @Override
+    public void write(int b) {
+        if (count == buffer.length && !grow(1)) {
+            flush();
+        }
+        buffer[count++] = (byte) b;
+        if (b == '\n') {
+            lines++;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) {
+        lines += countLines(bytes, off, len);
+        if (len > buffer.length - count && !grow(len)) {
+            flush();
+            if (len > buffer.length) {
+                // Larger than a whole frame, pass it through in buffer-sized pieces
+                for (int start = off; start < off + len; start += buffer.length) {
+                    int piece = Math.min(buffer.length, off + len - start);
+                    System.arraycopy(bytes, start, buffer, 0, piece);
+                    if (!muted) {
+                        sink.write(buffer, piece);
+                    }
+                }
+                return;
+            }
+        }
+        System.arraycopy(bytes, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Writes text encoded as UTF-8 straight into the buffer, without the encoder and
+     * the char buffer a {@link java.io.Writer} allocates on every call.
+     *
+     * @param text The text to write.
+     */
+    public void writeText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | c >> 6);
+                write(0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                write(0xE0 | c >> 12);
+                write(0x80 | c >> 6 & 0x3F);
+                write(0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                write(0xF0 | codePoint >> 18);
+                write(0x80 | codePoint >> 12 & 0x3F);
+                write(0x80 | codePoint >> 6 & 0x3F);
+                write(0x80 | codePoint & 0x3F);
+            } else {
+                // An unpaired surrogate, replaced the way the UTF-8 encoder replaces it
+                write('?');
+            }
+        }
+    }
+
+    /**
+     * Makes room in the buffer for more bytes of the current frame, doubling it up to
+     * its capacity.
+     *
+     * @param needed The number of bytes to make room for.
+     * @return true if they fit now, false if the frame must be passed on first.
+     */
+    private boolean grow(int needed) {
+        if (buffer.length >= capacity) {
+            return false;
+        }
+        int size = Math.min(capacity, Math.max(Math.max(INITIAL_SIZE, buffer.length * 2), count + needed));
+        buffer = Arrays.copyOf(buffer, size);
+        return size - count >= needed;
+    }
+
+    /**
+     * Delivers the collected frame to the sink, if there is anything to deliver, and
+     * starts a new frame.
+     */
+    @Override
+    public void flush() {
+        if (count > 0) {
+            if (!muted) {
+                sink.write(buffer, count);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Delivers the collected frame and lets go of the buffer until the next write.
+     */
+    public void release() {
+        flush();
+        buffer = RELEASED;
+    }
+
+    /**
+     * Drops the frames of this buffer, including the one collected so far, or starts
+     * delivering them again.
+     *
+     * @param muted boolean indicating if frames are dropped.
+     */
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    /**
+     * Returns the number of lines written since the buffer was created.
+     *
+     * @return The number of line terminators written.
+     */
+    public long getLinesWritten() {
+        return lines;
+    }
+
+    /**
+     * Counts the line terminators in a range of bytes.
+     *
+     * @param bytes The bytes to scan.
+     * @param off   The index of the first byte.
+     * @param len   The number of bytes to scan.
+     * @return The number of '\n' bytes in the range.
+     */
+    static int countLines(byte[] bytes, int off, int len) {
+        int newlines = 0;
+        for (int i = off; i < off + len; i++) {
+            if (bytes[i] == '\n') {
+                newlines++;
+            }
+        }
+        return newlines;
+    }
+
+    /**
+     * Returns the number of bytes collected for the current frame.
+     *
+     * @return The size of the pending frame.
+     */
+    public int pending() {
+        return count;
+    }
+}
@@ -0,0 +1,259 @@
+package com.heisenbergenigma.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The GameConsole class holds the input and output streams of one game session.
+ * Game code reads player input through {@link #reader()} and writes text to {@link #out()}
+ * instead of using {@code System.in} and {@code System.out} directly, so the same
+ * game code can serve a local terminal, a remote connection or a benchmark.
+ * <p>
+ * Text written to {@link #out()} is collected in a {@link FrameBuffer} and handed to
+ * the console's {@link OutputSink} as one frame when the game next reads from
+ * {@link #in()}, so a whole turn reaches the player in a single write. Code that
+ * pauses without reading, or ends the session, calls {@link #flush()} itself.
+ * Output can be muted until the game next reads from the stream, see {@link #muteUntilInput()}.
+ * <p>
+ * A console also knows whether its terminal understands ANSI cursor positioning, and
+ * how many lines have passed over the screen, counting both the game's output and
+ * the player's echoed input. Renderers use both to repaint in place.
+ * <p>
+ * Strings printed to {@link #out()} are encoded straight into the frame, so printing
+ * the text of a turn allocates nothing.
+ * <p>
+ * Each console has one {@link LineReader}, returned by {@link #reader()}, and all game
+ * code reads the player's lines through it. A reader buffers what it reads past the
+ * end of a line, so a second reader on the same stream would lose the lines of a
+ * paste the first one had already taken in.
+ * <p>
+ * The console is bound to the thread running the session. Threads that never bind
+ * a console use the process's standard streams.
+ */
+public class GameConsole {
+    // Console used by every thread that has not bound its own
+    private static final GameConsole SYSTEM = new GameConsole(System.in, OutputSink.of(System.out),
+            System.console() != null && !"dumb".equals(System.getenv("TERM")));
+    // Console of the session running on the current thread
+    private static final ThreadLocal<GameConsole> CURRENT = ThreadLocal.withInitial(() -> SYSTEM);
+
+    private final FrameBuffer frame;
+    private final FlushingInputStream input;
+    private final LineReader reader;
+    private final PrintStream output;
+    private final boolean ansi;
+
+    /**
+     * Constructs a GameConsole reading from the given stream and rendering to the given
+     * sink, without cursor positioning.
+     *
+     * @param input The stream the player's input is read from.
+     * @param sink  The sink the game's frames are delivered to.
+     */
+    public GameConsole(InputStream input, OutputSink sink) {
+        this(input, sink, false);
+    }
+
+    /**
+     * Constructs a GameConsole reading from the given stream and rendering to the given sink.
+     *
+     * @param input The stream the player's input is read from.
+     * @param sink  The sink the game's frames are delivered to.
+     * @param ansi  boolean indicating whether the terminal understands ANSI cursor positioning.
+     */
+    public GameConsole(InputStream input, OutputSink sink, boolean ansi) {
+        this.ansi = ansi;
+        this.frame = new FrameBuffer(sink, FrameBuffer.DEFAULT_CAPACITY);
+        this.input = new FlushingInputStream(input, frame);
+        this.reader = new LineReader(this.input);
+        // No autoflush: the frame is delivered when the player is asked for input
+        this.output = new TextStream(frame);
+    }
+
+    /**
+     * Binds the given console to the current thread, so every subsequent read and
+     * write made by game code on this thread goes through it.
+     *
+     * @param console The console of the session running on this thread.
+     */
+    public static void bind(GameConsole console) {
+        CURRENT.set(console);
+    }
+
+    /**
+     * Removes the console bound to the current thread, falling back to the standard streams.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the console of the session running on the current thread.
+     *
+     * @return The current GameConsole.
+     */
+    public static GameConsole current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the input stream of the current session. Reading from it first
+     * delivers the pending frame, so the player sees everything before being asked.
+     * Game code reads lines through {@link #reader()} instead.
+     *
+     * @return The stream to read player input from.
+     */
+    public static InputStream in() {
+        return current().input;
+    }
+
+    /**
+     * Returns the line reader of the current session, which every part of the game
+     * shares to read the player's input.
+     *
+     * @return The reader of player input.
+     */
+    public static LineReader reader() {
+        return current().reader;
+    }
+
+    /**
+     * Returns the output stream of the current session.
+     *
+     * @return The stream to write game text to.
+     */
+    public static PrintStream out() {
+        return current().output;
+    }
+
+    /**
+     * Delivers the current session's pending frame to its sink right away.
+     */
+    public static void flush() {
+        current().output.flush();
+    }
+
+    /**
+     * Drops the current session's output until the game next reads from its input
+     * stream. A game rebuilt by replaying its journal is muted this way, so the player
+     * only sees what follows the line they type next.
+     */
+    public static void muteUntilInput() {
+        current().frame.setMuted(true);
+    }
+
+    /**
+     * Delivers the current session's pending frame and lets go of the frame buffer
+     * until the game writes again, for a session that waits a long time for its player.
+     */
+    public static void releaseBuffers() {
+        current().frame.release();
+    }
+
+    /**
+     * Checks whether the current session's terminal understands ANSI cursor positioning.
+     *
+     * @return boolean indicating if the screen can be repainted in place.
+     */
+    public static boolean supportsAnsi() {
+        return current().ansi;
+    }
+
+    /**
+     * Returns the number of lines that have passed over the current session's screen:
+     * the lines the game wrote plus the lines the player typed, which the terminal echoes.
+     *
+     * @return A count that only ever grows.
+     */
+    public static long linesShown() {
+        GameConsole console = current();
+        return console.frame.getLinesWritten() + console.input.linesRead;
+    }
+
+    /**
+     * The TextStream class is the console's PrintStream. Printing a String, the way game
+     * code writes nearly all of its text, encodes it into the frame directly instead of
+     * going through the stream's Writer, which allocates a char buffer for every call.
+     */
+    private static class TextStream extends PrintStream {
+        private static final String LINE_SEPARATOR = System.lineSeparator();
+
+        private final FrameBuffer frame;
+
+        TextStream(FrameBuffer frame) {
+            super(frame, false, StandardCharsets.UTF_8);
+            this.frame = frame;
+        }
+
+        @Override
+        public void print(String s) {
+            synchronized (this) {
+                frame.writeText(String.valueOf(s));
+            }
+        }
+
+        @Override
+        public void println() {
+            synchronized (this) {
+                frame.writeText(LINE_SEPARATOR);
+            }
+        }
+
+        @Override
+        public void println(String x) {
+            synchronized (this) {
+                frame.writeText(String.valueOf(x));
+                frame.writeText(LINE_SEPARATOR);
+            }
+        }
+    }
+
+    /**
+     * The FlushingInputStream class delivers the pending frame before every read,
+     * which is the moment a turn's output is complete, and unmutes the frame buffer.
+     */
+    private static class FlushingInputStream extends InputStream {
+        private final InputStream in;
+        private final FrameBuffer frame;
+        private long linesRead;
+
+        FlushingInputStream(InputStream in, FrameBuffer frame) {
+            this.in = in;
+            this.frame = frame;
+        }
+
+        @Override
+        public int read() throws IOException {
+            frame.flush();
+            frame.setMuted(false);
+            int b = in.read();
+            if (b == '\n') {
+                linesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            frame.flush();
+            frame.setMuted(false);
+            int read = in.read(buffer, off, len);
+            if (read > 0) {
+                linesRead += FrameBuffer.countLines(buffer, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.heisenbergenigma.ui;
+
+import com.heisenbergenigma.commands.CommandRegistry;
+import com.heisenbergenigma.main.SessionIdleException;
+import com.heisenbergenigma.utils.SessionJournal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The LineReader class reads the player's input line by line into a buffer it
+ * reuses. Besides reading a line as text, it can look the verbs of a line up in a
+ * {@link CommandRegistry} in place and queue the commands they name, which is how
+ * the level loop reads moves every turn without creating a String.
+ * <p>
+ * Like a {@link java.util.Scanner}, a reader keeps whatever it read past the end of
+ * a line for its next call, so a stream must only ever be read through one reader.
+ * A session's reader is the one its {@link GameConsole#reader()} returns.
+ * <p>
+ * While a game is played the reader records every line in the game's
+ * {@link SessionJournal}. The lines of a journal recovered after a crash are put back
+ * ahead of the input with {@link #replay(List)}, and read like typed ones.
+ * <p>
+ * A read that times out, as a socket with a read timeout does when the player is
+ * idle, throws {@link SessionIdleException} while a game is being journaled and can
+ * be rebuilt from its save and journal. Otherwise the reader keeps waiting.
+ * <p>
+ * A line longer than {@value #MAX_LINE_LENGTH} bytes is dropped up to its terminator
+ * and read as an empty line, so a client that never ends its line cannot make the
+ * buffer grow without bound.
+ */
+public class LineReader {
+    private static final int INITIAL_CAPACITY = 256;
+    // Separates the commands of a line
+    public static final char SEPARATOR = ';';
+    // Highest count a command can be repeated by
+    public static final int MAX_REPEAT = 999;
+    // Longest line read, in bytes, longer ones are dropped
+    public static final int MAX_LINE_LENGTH = 4096;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    // Bytes read from the stream and not consumed yet are buffer[start, end)
+    private int start;
+    private int end;
+    // Bounds of the line found by the last call to nextLine, without its terminator
+    private int lineStart;
+    private int lineEnd;
+    // Commands queued from the last line: their indexes, repeat counts and argument bounds
+    private int[] queuedCommands = new int[8];
+    private int[] queuedRepeats = new int[8];
+    private int[] queuedArgumentStarts = new int[8];
+    private int[] queuedArgumentEnds = new int[8];
+    private int queueHead;
+    private int queueSize;
+    // Bounds of the argument of the command taken last
+    private int argumentStart;
+    private int argumentEnd;
+    // Journal every line read is recorded in, null outside of a game
+    private SessionJournal journal;
+    // Lines at the start of the buffer put back from the journal, which are not recorded again
+    private int replayedLines;
+
+    /**
+     * Constructs a LineReader over the given stream.
+     *
+     * @param in The stream to read lines from.
+     */
+    public LineReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Records every line read from now on in the given journal.
+     *
+     * @param journal The journal of the game being played, or null to stop recording.
+     */
+    public void setJournal(SessionJournal journal) {
+        this.journal = journal;
+        this.replayedLines = 0;
+    }
+
+    /**
+     * Puts lines recovered from a journal ahead of the input not read yet, so the
+     * game reads them again as if they were typed. They are not recorded a second time.
+     *
+     * @param lines The lines, without their terminators.
+     */
+    public void replay(List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        byte[][] encoded = new byte[lines.size()][];
+        int length = end - start;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = lines.get(i).getBytes(StandardCharsets.UTF_8);
+            length += encoded[i].length + 1;
+        }
+        byte[] replaced = new byte[Math.max(buffer.length, length)];
+        int position = 0;
+        for (byte[] line : encoded) {
+            System.arraycopy(line, 0, replaced, position, line.length);
+            position += line.length;
+            replaced[position++] = '\n';
+        }
+        System.arraycopy(buffer, start, replaced, position, end - start);
+        buffer = replaced;
+        start = 0;
+        end = length;
+        replayedLines += encoded.length;
+    }
+
+    /**
+     * Reads the next line as text. Commands still queued are dropped, since their
+     * arguments lived in the line read before.
+     *
+     * @return The line, without its terminator.
+     * @throws NoSuchElementException if the input has ended.
+     * @throws UncheckedIOException   if the stream cannot be read.
+     */
+    public String readLine() {
+        clearQueue();
+        nextLine();
+        int last = lineEnd;
+        // A line typed on Windows ends with \r\n
+        if (last > lineStart && buffer[last - 1] == '\r') {
+            last--;
+        }
+        return new String(buffer, lineStart, last - lineStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the next line and queues the commands on it. A line holds one or more
+     * commands separated by {@value #SEPARATOR}, and a command may start with a count
+     * that repeats it, so {@code gn;gn;ge} and {@code 2gn;ge} queue the same moves.
+     * Verbs are looked up in place, ignoring their case and the whitespace around
+     * them, and nothing is allocated unless the queue has to grow.
+     * <p>
+     * A line with any command that is not registered, or with an argument its verb
+     * doesn't take, queues nothing.
+     *
+     * @param commands The registry of the verbs accepted.
+     * @return boolean indicating if the line queued at least one command.
+     * @throws NoSuchElementException if the input has ended.
+     * @throws UncheckedIOException   if the stream cannot be read.
+     */
+    public boolean readCommands(CommandRegistry<?> commands) {
+        nextLine();
+        clearQueue();
+        int segmentStart = lineStart;
+        while (segmentStart <= lineEnd) {
+            int segmentEnd = segmentStart;
+            while (segmentEnd < lineEnd && buffer[segmentEnd] != SEPARATOR) {
+                segmentEnd++;
+            }
+            if (!queueCommand(commands, segmentStart, segmentEnd)) {
+                clearQueue();
+                return false;
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return queueSize > 0;
+    }
+
+    /**
+     * Parses one command of a line and queues it. An empty command, as between two
+     * separators, queues nothing.
+     *
+     * @return boolean indicating if the command was valid.
+     */
+    private boolean queueCommand(CommandRegistry<?> commands, int from, int to) {
+        while (from < to && (buffer[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (buffer[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return true;
+        }
+        int repeat = 1;
+        if (buffer[from] >= '0' && buffer[from] <= '9') {
+            repeat = 0;
+            while (from < to && buffer[from] >= '0' && buffer[from] <= '9') {
+                repeat = repeat * 10 + buffer[from++] - '0';
+                if (repeat > MAX_REPEAT) {
+                    return false;
+                }
+            }
+            while (from < to && (buffer[from] & 0xFF) <= ' ') {
+                from++;
+            }
+            if (repeat == 0) {
+                return false;
+            }
+        }
+        int verbEnd = from;
+        while (verbEnd < to && (buffer[verbEnd] & 0xFF) > ' ') {
+            verbEnd++;
+        }
+        int argument = verbEnd;
+        while (argument < to && (buffer[argument] & 0xFF) <= ' ') {
+            argument++;
+        }
+        int command = commands.indexOf(buffer, from, verbEnd);
+        if (command < 0 || (argument < to && !commands.takesArgument(command))) {
+            return false;
+        }
+        if (queueSize == queuedCommands.length) {
+            int capacity = queueSize * 2;
+            queuedCommands = Arrays.copyOf(queuedCommands, capacity);
+            queuedRepeats = Arrays.copyOf(queuedRepeats, capacity);
+            queuedArgumentStarts = Arrays.copyOf(queuedArgumentStarts, capacity);
+            queuedArgumentEnds = Arrays.copyOf(queuedArgumentEnds, capacity);
+        }
+        queuedCommands[queueSize] = command;
+        queuedRepeats[queueSize] = repeat;
+        queuedArgumentStarts[queueSize] = argument;
+        queuedArgumentEnds[queueSize] = to;
+        queueSize++;
+        return true;
+    }
+
+    /**
+     * Checks whether commands queued by {@link #readCommands(CommandRegistry)} are left.
+     *
+     * @return boolean indicating if there is a queued command.
+     */
+    public boolean hasQueuedCommand() {
+        return queueHead < queueSize;
+    }
+
+    /**
+     * Takes the next queued command, making its argument the one {@link #getArgument()} returns.
+     *
+     * @return The index of the command in the registry it was read with.
+     * @throws NoSuchElementException if no command is queued.
+     */
+    public int nextCommand() {
+        if (!hasQueuedCommand()) {
+            throw new NoSuchElementException("No command queued");
+        }
+        int command = queuedCommands[queueHead];
+        argumentStart = queuedArgumentStarts[queueHead];
+        argumentEnd = queuedArgumentEnds[queueHead];
+        if (--queuedRepeats[queueHead] == 0) {
+            queueHead++;
+        }
+        return command;
+    }
+
+    /**
+     * Drops the commands still queued.
+     */
+    public void clearQueue() {
+        queueHead = 0;
+        queueSize = 0;
+    }
+
+    /**
+     * Returns the argument of the command taken last by {@link #nextCommand()}.
+     *
+     * @return The text after the verb, without surrounding whitespace, or an empty string if there is none.
+     */
+    public String getArgument() {
+        if (argumentStart == argumentEnd) {
+            return "";
+        }
+        return new String(buffer, argumentStart, argumentEnd - argumentStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the next line in the buffer, reading from the stream until its terminator
+     * arrives or the input ends, and consumes it.
+     */
+    private void nextLine() {
+        // Bytes after start already searched for the terminator
+        int scanned = 0;
+        while (true) {
+            for (int i = start + scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    lineStart = start;
+                    lineEnd = i;
+                    start = i + 1;
+                    record();
+                    return;
+                }
+            }
+            scanned = end - start;
+            if (scanned >= MAX_LINE_LENGTH) {
+                skipLine();
+                lineStart = start;
+                lineEnd = start;
+                record();
+                return;
+            }
+            if (!fill()) {
+                if (start == end) {
+                    throw new NoSuchElementException("No line found");
+                }
+                // The last line of the input has no terminator
+                lineStart = start;
+                lineEnd = end;
+                start = end;
+                record();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops the line being read, reading on until its terminator or the end of the input.
+     */
+    private void skipLine() {
+        start = end;
+        while (fill()) {
+            for (int i = start; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    start = i + 1;
+                    return;
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Records the line just found in the journal, unless it was put back from it.
+     */
+    private void record() {
+        if (journal == null) {
+            return;
+        }
+        if (replayedLines > 0) {
+            replayedLines--;
+            journal.replayed();
+            return;
+        }
+        int last = lineEnd;
+        if (last > lineStart && buffer[last - 1] == '\r') {
+            last--;
+        }
+        journal.append(buffer, lineStart, last - lineStart);
+    }
+
+    /**
+     * Reads more input into the buffer, compacting or growing it first when it is full.
+     *
+     * @return boolean indicating if anything was read, false once the input has ended.
+     * @throws SessionIdleException if the read timed out while a game that can be rebuilt is journaled.
+     */
+    private boolean fill() {
+        if (start == end) {
+            start = 0;
+            end = 0;
+        } else if (start > 0 && end == buffer.length) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        while (true) {
+            try {
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    return false;
+                }
+                end += read;
+                return true;
+            } catch (SocketTimeoutException e) {
+                if (journal != null && journal.canRebuild()) {
+                    throw new SessionIdleException();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
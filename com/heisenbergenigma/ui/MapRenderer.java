@@ -0,0 +1,273 @@
+package com.heisenbergenigma.ui;
+
+import com.heisenbergenigma.utils.GameUtils;
+import com.heisenbergenigma.world.ChunkedGrid;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The MapRenderer class draws the map of one location with the player's current
+ * position. Only a viewport of at most {@value #VIEWPORT_ROWS} by
+ * {@value #VIEWPORT_COLS} cells around the player is drawn, so a turn costs the
+ * same on a level of any size. The viewport follows the player when they step out
+ * of it. Smaller levels fit in the viewport and are drawn whole.
+ * <p>
+ * Every distinct cell label is rendered and encoded once, plain and highlighted, and
+ * drawing copies those bytes for the cells of the viewport.
+ * <p>
+ * On terminals that understand ANSI cursor positioning the map stays at the top of
+ * the screen. After a move within the viewport only the cells whose highlight
+ * changed are repainted in place, and the text below the map is erased, instead of
+ * scrolling a whole new screen. The highlight makes a cell wider, so a repaint runs
+ * from the changed cell to the end of its row. When the viewport scrolls, when the
+ * text since the last draw may have scrolled the map out of view, or when the
+ * terminal is not ANSI-capable, the full viewport is drawn again.
+ */
+public class MapRenderer {
+    // Rows a terminal is assumed to have, when deciding whether the map is still visible
+    public static final int ASSUMED_TERMINAL_ROWS = 24;
+    // Largest area of the map drawn around the player, sized to fit an 80x24 terminal
+    public static final int VIEWPORT_ROWS = 5;
+    public static final int VIEWPORT_COLS = 4;
+    private static final String BORDER_START = "+";
+    private static final String BORDER_CELL = "-----------------+";
+    private static final String HINT = "Hint: Your Current Position is determined by the following Symbol:\"<Here!>\"";
+    private static final byte[] HOME_AND_ERASE = "\u001B[H\u001B[2J".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SCROLL_AWAY = GameUtils.CLEAR_SCREEN.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ERASE_LINE = "\u001B[K".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ROW_END = (GameUtils.ANSI_RED + "|" + GameUtils.ANSI_RESET).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEW_LINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    // Columns of the screen cursor moves are cached for, further ones are encoded on demand
+    private static final int CACHED_CURSOR_COLUMNS = 256;
+
+    private final ChunkedGrid<String> labels;
+    private final int rows;
+    private final int cols;
+    private final int viewRows;
+    private final int viewCols;
+    // Hint and top border, above the first row of the viewport
+    private final byte[] header;
+    // Border below every row of the viewport
+    private final byte[] border;
+    // Rendered cells by label, and the cell drawn where there is no label
+    private final Map<String, RenderedCell> cells = new HashMap<>();
+    private final RenderedCell emptyCell;
+    // Cursor moves to the rows of the viewport, indexed [viewport row][screen column]
+    private final byte[][][] cursorMoves;
+    // Cursor move to the first line below the map, erasing everything under it
+    private final byte[] eraseBelowMap;
+    // Lines the game may print below the map before the map scrolls off the top
+    private final int textRows;
+
+    private int drawnRow = -1;
+    private int drawnCol = -1;
+    private int drawnTop = -1;
+    private int drawnLeft = -1;
+    private long linesShownAfterDraw;
+
+    /**
+     * Constructs a MapRenderer for a location.
+     *
+     * @param labels Labels for the cells of the location. Cells without a label are drawn empty.
+     */
+    public MapRenderer(ChunkedGrid<String> labels) {
+        this.labels = labels;
+        this.rows = labels.getRows();
+        this.cols = labels.getCols();
+        this.viewRows = Math.min(rows, VIEWPORT_ROWS);
+        this.viewCols = Math.min(cols, VIEWPORT_COLS);
+        String newLine = System.lineSeparator();
+        String borderLine = BORDER_START + BORDER_CELL.repeat(viewCols);
+        this.header = (GameUtils.ANSI_RED + HINT + newLine
+                + GameUtils.ANSI_RED + borderLine + GameUtils.ANSI_RESET + newLine).getBytes(StandardCharsets.UTF_8);
+        this.border = (GameUtils.ANSI_RED + borderLine + GameUtils.ANSI_RESET + newLine).getBytes(StandardCharsets.UTF_8);
+        // An empty cell is blank up to the next border, unless the player stands on it
+        this.emptyCell = new RenderedCell(GameUtils.ANSI_RED + "|" + " ".repeat(BORDER_CELL.length() - 1),
+                renderCell("", true));
+        this.cursorMoves = new byte[viewRows][CACHED_CURSOR_COLUMNS][];
+        int mapHeight = 2 + 2 * viewRows;
+        this.eraseBelowMap = (moveCursor(mapHeight + 1, 1) + "\u001B[J").getBytes(StandardCharsets.UTF_8);
+        this.textRows = ASSUMED_TERMINAL_ROWS - mapHeight - 1;
+    }
+
+    /**
+     * Draws the map around the player at the given cell on the current session's console.
+     *
+     * @param row The row of the player's position.
+     * @param col The column of the player's position.
+     */
+    public void draw(int row, int col) {
+        PrintStream out = GameConsole.out();
+        int top = viewportStart(row, rows, viewRows, drawnTop);
+        int left = viewportStart(col, cols, viewCols, drawnLeft);
+        if (GameConsole.supportsAnsi() && isMapOnScreen() && top == drawnTop && left == drawnLeft) {
+            if (row != drawnRow) {
+                patchRow(out, drawnRow, -1, drawnCol);
+                patchRow(out, row, col, col);
+            } else if (col != drawnCol) {
+                patchRow(out, row, col, Math.min(col, drawnCol));
+            }
+            out.writeBytes(eraseBelowMap);
+        } else {
+            out.writeBytes(GameConsole.supportsAnsi() ? HOME_AND_ERASE : SCROLL_AWAY);
+            out.writeBytes(header);
+            for (int r = top; r < top + viewRows; r++) {
+                writeRow(out, r, r == row ? col : -1, left, left);
+                out.writeBytes(NEW_LINE);
+                out.writeBytes(border);
+            }
+        }
+        drawnRow = row;
+        drawnCol = col;
+        drawnTop = top;
+        drawnLeft = left;
+        linesShownAfterDraw = GameConsole.linesShown();
+    }
+
+    /**
+     * Returns the first row or column of the viewport. The viewport stays where it
+     * is while the player is inside it, and is centred on the player again, as far
+     * as the edges of the map allow, once they step out of it.
+     *
+     * @param position The row or column of the player.
+     * @param size     The number of rows or columns of the map.
+     * @param view     The number of rows or columns of the viewport.
+     * @param current  The first row or column shown now, or -1 before the first draw.
+     * @return The first row or column to show.
+     */
+    private static int viewportStart(int position, int size, int view, int current) {
+        if (current >= 0 && position >= current && position < current + view) {
+            return current;
+        }
+        return Math.max(0, Math.min(position - view / 2, size - view));
+    }
+
+    /**
+     * Checks whether the last frame drawn is still fully visible, judging by the
+     * lines that have passed over the screen since.
+     *
+     * @return boolean indicating if the map can be patched in place.
+     */
+    private boolean isMapOnScreen() {
+        return drawnRow >= 0 && GameConsole.linesShown() - linesShownAfterDraw <= textRows;
+    }
+
+    /**
+     * Repaints one row of the viewport in place, from the given cell to its end.
+     * The cells left of the repaint are never highlighted, so their plain widths
+     * give the screen column to start at.
+     *
+     * @param out       The stream to draw to.
+     * @param row       The row of the map.
+     * @param highlight The column holding the player, or -1 for none.
+     * @param from      The first column of the map to repaint.
+     */
+    private void patchRow(PrintStream out, int row, int highlight, int from) {
+        int column = 1;
+        for (int col = drawnLeft; col < from; col++) {
+            column += cell(row, col).width;
+        }
+        out.writeBytes(cursorMove(row - drawnTop, column));
+        out.writeBytes(ERASE_LINE);
+        writeRow(out, row, highlight, from, drawnLeft);
+    }
+
+    /**
+     * Draws the cells of a row of the viewport, from the given cell to the right
+     * edge of the viewport, and the row's right border.
+     *
+     * @param out       The stream to draw to.
+     * @param row       The row of the map.
+     * @param highlight The column holding the player, or -1 for none.
+     * @param from      The first column of the map to draw.
+     * @param left      The first column of the viewport.
+     */
+    private void writeRow(PrintStream out, int row, int highlight, int from, int left) {
+        for (int col = from; col < left + viewCols; col++) {
+            RenderedCell cell = cell(row, col);
+            out.writeBytes(col == highlight ? cell.highlighted : cell.plain);
+        }
+        out.writeBytes(ROW_END);
+    }
+
+    private RenderedCell cell(int row, int col) {
+        String label = labels.get(row, col);
+        if (label == null) {
+            return emptyCell;
+        }
+        RenderedCell cell = cells.get(label);
+        if (cell == null) {
+            cell = new RenderedCell(renderCell(label, false), renderCell(label, true));
+            cells.put(label, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the cursor move to a row of the viewport, caching it for later draws.
+     *
+     * @param viewRow The row of the viewport.
+     * @param column  The column of the screen.
+     * @return The encoded cursor move.
+     */
+    private byte[] cursorMove(int viewRow, int column) {
+        // The hint and the top border take the first two lines of the screen
+        int line = 3 + 2 * viewRow;
+        if (column >= CACHED_CURSOR_COLUMNS) {
+            return moveCursor(line, column).getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] move = cursorMoves[viewRow][column];
+        if (move == null) {
+            move = moveCursor(line, column).getBytes(StandardCharsets.UTF_8);
+            cursorMoves[viewRow][column] = move;
+        }
+        return move;
+    }
+
+    /**
+     * Renders one cell of the map the way the game has always drawn it.
+     *
+     * @param label       The label of the cell.
+     * @param highlighted boolean indicating if the player stands on the cell.
+     * @return The cell, starting with its left border.
+     */
+    private static String renderCell(String label, boolean highlighted) {
+        if (highlighted) {
+            return GameUtils.ANSI_RED + "| " + String.format(GameUtils.ANSI_YELLOW + "%-15s", "[" + label + "<Here!>" + "] " + GameUtils.ANSI_RESET);
+        }
+        return GameUtils.ANSI_RED + "| " + String.format(GameUtils.ANSI_RED + "%-15s", "[" + label + "] " + GameUtils.ANSI_RESET);
+    }
+
+    /**
+     * Returns the number of columns text takes on screen, ignoring colour codes.
+     *
+     * @param text The text to measure.
+     * @return The visible width of the text.
+     */
+    private static int visibleWidth(String text) {
+        return text.replaceAll("\u001B\\[[0-9;]*m", "").length();
+    }
+
+    private static String moveCursor(int line, int column) {
+        return "\u001B[" + line + ";" + column + "H";
+    }
+
+    /**
+     * The RenderedCell class holds the encoded forms of one cell.
+     */
+    private static class RenderedCell {
+        private final byte[] plain;
+        private final byte[] highlighted;
+        // Columns the plain cell takes on screen
+        private final int width;
+
+        RenderedCell(String plainCell, String highlightedCell) {
+            this.plain = plainCell.getBytes(StandardCharsets.UTF_8);
+            this.highlighted = highlightedCell.getBytes(StandardCharsets.UTF_8);
+            this.width = visibleWidth(plainCell);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.heisenbergenigma.ui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The OutputSink interface is where a session's rendered frames end up: the local
+ * terminal, a player's socket, or memory when the game runs headless. A frame is all
+ * the text the game produced since the player's last input, and it is handed to the
+ * sink in a single call.
+ */
+public interface OutputSink {
+
+    /**
+     * Delivers one frame of output.
+     *
+     * @param frame  The buffer holding the frame's bytes.
+     * @param length The number of bytes of the frame, starting at index 0.
+     */
+    void write(byte[] frame, int length);
+
+    /**
+     * Returns a sink that writes every frame to the given stream with one write
+     * followed by a flush.
+     *
+     * @param stream The stream to deliver frames to.
+     * @return A sink over the stream.
+     */
+    static OutputSink of(OutputStream stream) {
+        return (frame, length) -> {
+            try {
+                stream.write(frame, 0, length);
+                stream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns a sink that throws every frame away.
+     *
+     * @return A sink that discards its input.
+     */
+    static OutputSink discard() {
+        return (frame, length) -> {
+        };
+    }
+}
@@ -1,13 +1,16 @@
 package com.heisenbergenigma.ui;
 
+import com.heisenbergenigma.commands.CommandRegistry;
+import com.heisenbergenigma.locations.CarWash;
+import com.heisenbergenigma.world.WorldContent;
 import com.heisenbergenigma.main.MainGame;
 
-import java.util.InputMismatchException;
-import java.util.Scanner;
-
 import com.heisenbergenigma.utils.GameUtils;
 import com.heisenbergenigma.player.Player;
 
+import java.io.IOException;
+import java.util.UUID;
+
 /**
  * The UiManager class is responsible for managing all user input interactions
  * within the game. It handles input and output operations, displays menus, and
@@ -15,9 +18,12 @@ import com.heisenbergenigma.player.Player;
  */
 public class UiManager {
 
+    // Prompt repeated after a line that named no command
+    private static final String RETRY_PROMPT = "Enter your move: ";
+
     private MainGame mainGame;
     int menuWidth = 200; // Width of the menu for centering text
-    private Scanner scanner;
+    private final LineReader lineReader;
 
     /**
      * Constructs a UiManager for the specified MainGame instance.
@@ -26,29 +32,59 @@ public class UiManager {
      */
     public UiManager(MainGame mainGame) {
         this.mainGame = mainGame;
-        this.scanner = new Scanner(System.in);
+        this.lineReader = GameConsole.reader();
 
     }
 
     /**
-     * Gets the player's movement input, validating for specific commands.
+     * Returns the player's next command. Commands left on the last line the player
+     * typed come first; otherwise a new line is read, asking again until it names
+     * only the given verbs. A line can hold several commands, such as
+     * {@code gn;gn;ge} or {@code 3gn}, which are then returned one per call. Verbs
+     * are looked up in place in the input buffer, so reading commands without an
+     * argument allocates nothing.
      *
-     * @return A string representing the player's movement direction.
+     * @param commands       The verbs the player may use and the commands they run.
+     * @param prompt         The prompt asking for a command.
+     * @param invalidMessage The message shown when a line names no command.
+     * @param <C>            The type of the commands.
+     * @return The command to run next.
      */
-    public String getMovementInput() {
-        System.out.print("Enter your move (gn, gs, ge, gw), 'inventory' to check items or 'exit': ");
-        String input = scanner.nextLine().trim().toLowerCase();
-
-        while (!input.matches("gn|gs|ge|gw|inventory|exit")) {
-            System.out.println("Invalid command. Please enter 'gn', 'gs', 'ge', 'gw', 'inventory' or 'exit'.");
-            System.out.print("Enter your move: ");
-            input = scanner.nextLine().trim().toLowerCase();
-        }
-        if ("exit".equals(input)) {
-            System.out.println("Exiting game...");
-            System.exit(0); // Exits the program
+    public <C> C readCommand(CommandRegistry<C> commands, String prompt, String invalidMessage) {
+        if (!lineReader.hasQueuedCommand()) {
+            GameConsole.out().print(prompt);
+            while (!lineReader.readCommands(commands)) {
+                GameConsole.out().println(invalidMessage);
+                GameConsole.out().print(RETRY_PROMPT);
+            }
         }
-        return input;
+        return commands.get(lineReader.nextCommand());
+    }
+
+    /**
+     * Checks whether commands typed on the last line are still waiting to run.
+     *
+     * @return boolean indicating if readCommand will return a queued command without reading.
+     */
+    public boolean hasQueuedCommands() {
+        return lineReader.hasQueuedCommand();
+    }
+
+    /**
+     * Drops the commands still waiting to run, for example when something on the
+     * way needs the player's attention.
+     */
+    public void cancelQueuedCommands() {
+        lineReader.clearQueue();
+    }
+
+    /**
+     * Returns the argument typed after the verb of the command returned last.
+     *
+     * @return The argument, or an empty string if there is none.
+     */
+    public String getCommandArgument() {
+        return lineReader.getArgument();
     }
 
     /**
@@ -57,6 +93,7 @@ public class UiManager {
     public void displayMainMenu() {
         final String BgMusicPath = "com/heisenbergenigma/assets/mainMenu.wav";
         GameUtils.playBackgroundMusicFromPath(BgMusicPath);
+        GameUtils.prefetchBackgroundMusic(WorldContent.shared().getMusicPath(CarWash.LEVEL_ID));
 
         boolean menuActive = true;
 
@@ -68,28 +105,51 @@ public class UiManager {
             GameUtils.printCenteredAndDecorated("3. Exit", menuWidth);
             GameUtils.printCenteredAndDecorated("Enter your choice (1-3): ", menuWidth);
             try {
-                int choice = Integer.parseInt(scanner.nextLine());
+                int choice = Integer.parseInt(lineReader.readLine());
 
                 switch (choice) {
                     case 1:
-                        System.out.println("Game Starting");
-                        mainGame.startNewGame();
-                        menuActive = false;  // Assuming the game loop takes over
+                        GameConsole.out().println("Game Starting");
+                        try {
+                            mainGame.startNewGame();
+                            menuActive = false;  // Assuming the game loop takes over
+                        } catch (IOException e) {
+                            GameConsole.out().println("Your game could not be started: " + e.getMessage());
+                        }
                         break;
                     case 2:
-                        System.out.println("Game Loading");
-                        //mainGame.loadGame(); //This feature is not developed yet
-                        menuActive = false;  // Assuming the game continues from loaded state
+                        GameConsole.out().println("Enter the name you played under: ");
+                        String playerName = lineReader.readLine();
+                        UUID playerId = null;
+                        if (mainGame.needsPlayerId()) {
+                            GameConsole.out().println("Enter your player id: ");
+                            try {
+                                playerId = UUID.fromString(lineReader.readLine().trim());
+                            } catch (IllegalArgumentException e) {
+                                GameConsole.out().println("That is not a player id.");
+                                break;
+                            }
+                        }
+                        try {
+                            GameConsole.out().println("Game Loading");
+                            if (mainGame.loadGame(playerName, playerId)) {
+                                menuActive = false;  // The loaded game has been played
+                            } else {
+                                GameConsole.out().println("No saved game found for " + playerName.trim() + ".");
+                            }
+                        } catch (IOException e) {
+                            GameConsole.out().println("Your saved game could not be loaded: " + e.getMessage());
+                        }
                         break;
                     case 3:
-                        System.out.println("Exiting game. Goodbye!");
+                        GameConsole.out().println("Exiting game. Goodbye!");
                         menuActive = false;
                         break;
                     default:
-                        System.out.println("Invalid choice. Please enter a number between 1 and 3.");
+                        GameConsole.out().println("Invalid choice. Please enter a number between 1 and 3.");
                 }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number.");
+                GameConsole.out().println("Invalid input. Please enter a number.");
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
@@ -105,13 +165,11 @@ public class UiManager {
     public Player createPlayerProfile() throws InterruptedException {
         boolean isBreakingBadFan = false;
         String playerName = "";
-        Scanner scanner = new Scanner(System.in);
-
-        System.out.println("Enter your name: ");
+        GameConsole.out().println("Enter your name: ");
         while (playerName.isEmpty()) {
-            playerName = scanner.nextLine();
+            playerName = lineReader.readLine();
             if (playerName.isEmpty()) {
-                System.out.println("You must enter a name. Please try again:");
+                GameConsole.out().println("You must enter a name. Please try again:");
             }
         }
 
@@ -119,15 +177,17 @@ public class UiManager {
         while (!isBreakingBadFan) {
 
 
-            System.out.println("Do you admit that Breaking Bad is better than Game of Thrones? (yes/no)");
-            String response = scanner.nextLine();
-            isBreakingBadFan = response.trim().equalsIgnoreCase("yes");
+            GameConsole.out().println("Do you admit that Breaking Bad is better than Game of Thrones? (yes/no)");
+            String response = lineReader.readLine();
+            isBreakingBadFan = GameUtils.proceedAnswer(response) == Boolean.TRUE;
 
 
             if (!isBreakingBadFan) {
-                System.out.println("You must be a fan of Breaking Bad to play this game!");
+                GameConsole.out().println("You must be a fan of Breaking Bad to play this game!");
             } else {
-                System.out.println("Well answered! Bravo!");
+                GameConsole.out().println("Well answered! Bravo!");
+                // Show the answer before pausing, nothing is read until the level starts
+                GameConsole.flush();
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e) {
@@ -147,10 +207,9 @@ public class UiManager {
     public int getIntInput() {
         while (true) {
             try {
-                return scanner.nextInt();
-            } catch (InputMismatchException e) {
-                scanner.nextLine(); // clear the invalid input
-                System.out.print("Invalid input. Please enter a number: ");
+                return Integer.parseInt(lineReader.readLine().trim());
+            } catch (NumberFormatException e) {
+                GameConsole.out().print("Invalid input. Please enter a number: ");
             }
         }
     }
@@ -162,6 +221,6 @@ public class UiManager {
      */
 
     public String getUserInput() {
-        return scanner.nextLine();
+        return lineReader.readLine();
     }
 }
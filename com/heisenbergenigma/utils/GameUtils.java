@@ -1,14 +1,10 @@
 package com.heisenbergenigma.utils;
-// The next imports are for background music implementations
 
-import java.io.InputStream;
-import java.util.Scanner;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.IOException;
+import com.heisenbergenigma.audio.AudioService;
+import com.heisenbergenigma.commands.CommandRegistry;
+import com.heisenbergenigma.main.MainGame;
+import com.heisenbergenigma.main.SessionEndedException;
+import com.heisenbergenigma.ui.GameConsole;
 
 /**
  * The GameUtils class provides utility functions for the game, including
@@ -25,6 +21,17 @@ public class GameUtils {
     public static final String ANSI_YELLOW = "\u001B[33m";
     public static final String ANSI_BLUE = "\u001B[34m";
     public static final String ANSI_PURPLE = "\u001B[35m";
+    // Text that scrolls the previous screen out of view
+    public static final String CLEAR_SCREEN = "\n\n".repeat(50);
+    // Prompt shown before the game moves on to the next scene
+    public static final String PROCEED_PROMPT = "Do you want to proceed? (yes/no): ";
+    // Answers to the prompt to proceed, true to go on and false to quit
+    private static final CommandRegistry<Boolean> PROCEED_ANSWERS = new CommandRegistry<>();
+
+    static {
+        PROCEED_ANSWERS.register("yes", Boolean.TRUE);
+        PROCEED_ANSWERS.register("no", Boolean.FALSE);
+    }
 
     /**
      * Prints text centered and decorated with a specific width.
@@ -40,42 +47,57 @@ public class GameUtils {
         decoratedText = String.format("%" + (padStart + decoratedText.length()) + "s", decoratedText);
         decoratedText = String.format("%-" + width + "s", decoratedText);
 
-        System.out.println(decoratedText);
+        GameConsole.out().println(decoratedText);
     }
 
-    private static Clip clip; // Static member to hold the music clip
+    // Plays the music on its own thread, so the game never waits for audio
+    private static final AudioService audioService = new AudioService();
+    private static volatile boolean audioEnabled = true; // Turned off when the process serves remote players
 
     /**
-     * Plays background music from the provided InputStream.
+     * Enables or disables background music for the whole process. A server hosting
+     * remote players turns it off, since the music would play on the server itself.
      *
-     * @param audioStream The InputStream of the audio file to be played.
+     * @param enabled boolean indicating whether background music may be played.
+     */
+    public static void setAudioEnabled(boolean enabled) {
+        audioEnabled = enabled;
+    }
+
+    /**
+     * Plays background music from the specified file path, looping until stopped.
+     * The track is loaded and played by the audio service, so this returns at once.
+     * If the file cannot be found or played, the service prints an error message.
+     *
+     * @param filePath The relative path to the audio file within the project resources.
      */
     // https://stackoverflow.com/questions/13573281/how-to-play-a-background-music-when-the-program-run-in-java
-    public static void playBackgroundMusic(InputStream audioStream) {
-        try {
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(audioStream);
-            clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            e.printStackTrace();
+    public static void playBackgroundMusicFromPath(String filePath) {
+        if (audioEnabled) {
+            audioService.play(filePath);
         }
     }
 
     /**
-     * Plays background music from the specified file path.
-     * This method attempts to load an audio file from the given path and play it as background music.
-     * If the file cannot be found or loaded, it prints an error message.
+     * Fades from the background music currently playing to the specified track.
      *
      * @param filePath The relative path to the audio file within the project resources.
      */
-    public static void playBackgroundMusicFromPath(String filePath) {
-        InputStream audioStream = GameUtils.class.getClassLoader().getResourceAsStream(filePath);
-        if (audioStream != null) {
-            playBackgroundMusic(audioStream);
-        } else {
-            System.out.println("Can't find file: " + filePath);
+    public static void crossfadeBackgroundMusic(String filePath) {
+        if (audioEnabled) {
+            audioService.crossfade(filePath, AudioService.DEFAULT_CROSSFADE_MILLIS);
+        }
+    }
+
+    /**
+     * Loads the specified track in the background, so that it starts without delay
+     * when it is played later, typically by the next level.
+     *
+     * @param filePath The relative path to the audio file within the project resources.
+     */
+    public static void prefetchBackgroundMusic(String filePath) {
+        if (audioEnabled) {
+            audioService.prefetch(filePath);
         }
     }
 
@@ -83,71 +105,59 @@ public class GameUtils {
      * Stops the currently playing background music.
      */
     public static void stopBackgroundMusic() {
-        if (clip != null) {
-            clip.stop(); // Stop the music
-            clip.close(); // Close the clip
+        if (audioEnabled) {
+            audioService.stop();
         }
     }
 
+    /**
+     * Reads an answer to the prompt to proceed, ignoring case and the whitespace around it.
+     *
+     * @param line The line the player typed.
+     * @return true for "yes", false for "no", or null if the line is neither.
+     */
+    public static Boolean proceedAnswer(String line) {
+        return PROCEED_ANSWERS.match(line);
+    }
+
     /**
      * Prompts the user to proceed with the game or exit.
      */
     public static void promptToProceed() {
-        Scanner scanner = new Scanner(System.in);
         while (true) {
-            System.out.print("Do you want to proceed? (yes/no): ");
-            String response = scanner.nextLine().trim().toLowerCase();
+            GameConsole.out().print(PROCEED_PROMPT);
+            Boolean proceed = proceedAnswer(GameConsole.reader().readLine());
 
-            if ("yes".equals(response)) {
+            if (proceed == Boolean.TRUE) {
                 clearConsole();
                 break;
-            } else if ("no".equals(response)) {
-                System.out.println("Exiting game...");
-                System.exit(0);
+            } else if (proceed == Boolean.FALSE) {
+                exitGame();
             } else {
-                System.out.println("Invalid input. Please type 'yes' or 'no'.");
+                GameConsole.out().println("Invalid input. Please type 'yes' or 'no'.");
             }
         }
     }
 
     /**
-     * Clears the console output by printing new lines.
+     * Ends the game at the player's request. Only the current session ends: its
+     * music stops and the session unwinds back to {@link MainGame#start()}, while the
+     * process goes on serving any other players.
+     *
+     * @throws SessionEndedException always, to end the current session.
      */
-    private static void clearConsole() {
-        for (int i = 0; i < 50; i++) {
-            System.out.println("\n");
-        }
+    public static void exitGame() {
+        GameConsole.out().println("Exiting game...");
+        GameConsole.flush();
+        stopBackgroundMusic();
+        throw new SessionEndedException();
     }
 
     /**
-     * Draws a map of the game world with the player's current position.
-     *
-     * @param matrix         The matrix representing the game world layout.
-     * @param playerPosX     The X-coordinate of the player's position.
-     * @param playerPosY     The Y-coordinate of the player's position.
-     * @param locationLabels Labels for each location in the matrix.
+     * Clears the console output by printing new lines.
      */
-    public static void drawMap(Object[][] matrix, int playerPosX, int playerPosY, String[][] locationLabels) {
-        GameUtils.clearConsole();
-        System.out.println(ANSI_RED + "Hint: Your Current Position is determined by the following Symbol:\"<Here!>\"");
-        System.out.println(ANSI_RED + "+-----------------+-----------------+-----------------+" + ANSI_RESET);
-        for (int row = 0; row < matrix.length; row++) {
-            for (int col = 0; col < matrix[row].length; col++) {
-                System.out.print(ANSI_RED + "| ");
-                if (row == playerPosY && col == playerPosX) {
-                    System.out.printf(ANSI_YELLOW + "%-15s", "[" + locationLabels[row][col] + "<Here!>" + "] " + ANSI_RESET);
-                } else {
-                    System.out.printf(ANSI_RED + "%-15s", "[" + locationLabels[row][col] + "] " + ANSI_RESET);
-                }
-            }
-            System.out.println(ANSI_RED + "|" + ANSI_RESET);
-            System.out.println(ANSI_RED + "+-----------------+-----------------+-----------------+" + ANSI_RESET);
-        }
+    private static void clearConsole() {
+        GameConsole.out().print(CLEAR_SCREEN);
     }
 
 }
-
-
-
-
-
@@ -0,0 +1,299 @@
+package com.heisenbergenigma.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * The MappedSaveStore class keeps the saves of many players in a few large files
+ * instead of one file each, for a server with more players than a directory should
+ * hold files. The files are split into slots of {@value #SLOT_SIZE} bytes and mapped
+ * into memory, so a save is copied into its player's slot without a system call.
+ * The slots reach the disk when the store is forced.
+ * <p>
+ * Each file, {@code saves-<n>.dat}, holds {@value #SLOTS_PER_SEGMENT} slots and the
+ * next one is created when they are all taken. A player keeps the slot they were
+ * given for good. A slot holds two copies of {@value #COPY_SIZE} bytes, and each
+ * save goes to the copy not holding the player's latest one, so a save cut short
+ * by a crash leaves the save before it whole. A copy holds, all numbers big-endian:
+ * <pre>
+ *   int    CRC-32 of everything after it, up to the end of the save
+ *   int    length of the save, 0 for a copy never written
+ *   long   player id, most significant bits
+ *   long   player id, least significant bits
+ *   long   sequence number of the save, counting the player's saves from 1
+ *   bytes  the save, as encoded by {@link SaveLoadManager}
+ * </pre>
+ * <p>
+ * Slots are found by player id, and only by player id, through an open-addressing
+ * table held in memory. Names are not unique, a save found by name could be another
+ * player's. When the store is opened, every slot of every file is read and the newest
+ * copy of each that passes its checksum is indexed: a mapping reaches the disk page
+ * by page in no set order, so a slot never written can lie before slots that were.
+ * The store can be shared between threads.
+ */
+public class MappedSaveStore implements Closeable {
+    // Bytes of every copy of a save, header included
+    public static final int COPY_SIZE = 1024;
+    // Bytes of every slot, the two copies of a player's save
+    public static final int SLOT_SIZE = 2 * COPY_SIZE;
+    // Slots of every file, 64 MiB worth, which take disk space only once written
+    public static final int SLOTS_PER_SEGMENT = 1 << 15;
+    private static final String SEGMENT_PREFIX = "saves-";
+    private static final String SEGMENT_EXTENSION = ".dat";
+    private static final int LENGTH_OFFSET = Integer.BYTES;
+    private static final int ID_OFFSET = LENGTH_OFFSET + Integer.BYTES;
+    private static final int SEQUENCE_OFFSET = ID_OFFSET + 2 * Long.BYTES;
+    private static final int HEADER_SIZE = SEQUENCE_OFFSET + Long.BYTES;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+    private final Path directory;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Files written since the store was last forced
+    private final BitSet dirtySegments = new BitSet();
+    // Slot of every player id: ids in two arrays, slot + 1 in the third, 0 marking an empty entry
+    private long[] indexMost = new long[INITIAL_INDEX_CAPACITY];
+    private long[] indexLeast = new long[INITIAL_INDEX_CAPACITY];
+    private int[] indexSlots = new int[INITIAL_INDEX_CAPACITY];
+    // Sequence number of the latest save in every slot, whose copy is its lowest bit
+    private long[] sequences = new long[INITIAL_INDEX_CAPACITY];
+    private int slotsTaken;
+    private int playerCount;
+    private final CRC32 crc = new CRC32();
+
+    private MappedSaveStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the store kept in the given directory, creating the directory if needed,
+     * and indexes the saves it holds. A slot with no copy that passes its checksum
+     * holds no save and is skipped.
+     *
+     * @param directory The directory of the store's files.
+     * @return The store.
+     * @throws IOException if the files cannot be opened.
+     */
+    public static MappedSaveStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MappedSaveStore store = new MappedSaveStore(directory);
+        while (Files.exists(store.segmentPath(store.segments.size()))) {
+            int first = store.segments.size() * SLOTS_PER_SEGMENT;
+            MappedByteBuffer segment = store.mapSegment(store.segments.size());
+            for (int i = 0; i < SLOTS_PER_SEGMENT; i++) {
+                int offset = i * SLOT_SIZE;
+                long sequence = Math.max(store.validSequence(segment, offset), store.validSequence(segment, offset + COPY_SIZE));
+                if (sequence == 0L) {
+                    continue;
+                }
+                int copy = offset + (int) (sequence & 1L) * COPY_SIZE;
+                store.slotsTaken = first + i + 1;
+                store.index(segment.getLong(copy + ID_OFFSET), segment.getLong(copy + ID_OFFSET + Long.BYTES), first + i);
+                store.sequences = store.growSequences(first + i);
+                store.sequences[first + i] = sequence;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Stores a player's save, replacing the one they had.
+     *
+     * @param playerId The id of the player.
+     * @param save     The encoded save, from its position to its limit, which is left unchanged.
+     * @throws IOException if the save does not fit a slot, or a new file cannot be created.
+     */
+    public synchronized void put(UUID playerId, ByteBuffer save) throws IOException {
+        int length = save.remaining();
+        if (HEADER_SIZE + length > COPY_SIZE) {
+            throw new IOException("A save of " + length + " bytes does not fit a copy of " + COPY_SIZE + " bytes");
+        }
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int slot = find(most, least);
+        if (slot < 0) {
+            slot = takeSlot();
+            index(most, least, slot);
+        }
+        // The copy the latest save is not in, so it stays whole until this one is on disk
+        long sequence = sequences[slot] + 1;
+        MappedByteBuffer segment = segments.get(slot / SLOTS_PER_SEGMENT);
+        int offset = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE + (int) (sequence & 1L) * COPY_SIZE;
+        segment.putInt(offset + LENGTH_OFFSET, length);
+        segment.putLong(offset + ID_OFFSET, most);
+        segment.putLong(offset + ID_OFFSET + Long.BYTES, least);
+        segment.putLong(offset + SEQUENCE_OFFSET, sequence);
+        segment.put(offset + HEADER_SIZE, save, save.position(), length);
+        segment.putInt(offset, checksum(segment, offset, length));
+        sequences[slot] = sequence;
+        dirtySegments.set(slot / SLOTS_PER_SEGMENT);
+    }
+
+    /**
+     * Returns the save of a player.
+     *
+     * @param playerId The id of the player.
+     * @return A copy of the encoded save, or null if the player has none.
+     */
+    public synchronized ByteBuffer get(UUID playerId) {
+        int slot = find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        return slot < 0 ? null : read(slot);
+    }
+
+    /**
+     * Returns the number of saves in the store.
+     *
+     * @return The number of players with a save.
+     */
+    public synchronized int size() {
+        return playerCount;
+    }
+
+    /**
+     * Writes the saves stored since the last call to disk. Saves can go on being
+     * stored while the files are forced.
+     */
+    public void force() {
+        List<MappedByteBuffer> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (int i = dirtySegments.nextSetBit(0); i >= 0; i = dirtySegments.nextSetBit(i + 1)) {
+                dirty.add(segments.get(i));
+            }
+            dirtySegments.clear();
+        }
+        for (MappedByteBuffer segment : dirty) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forces the saves to disk. The files stay mapped until the buffers are collected.
+     */
+    @Override
+    public void close() {
+        force();
+    }
+
+    private ByteBuffer read(int slot) {
+        MappedByteBuffer segment = segments.get(slot / SLOTS_PER_SEGMENT);
+        int offset = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE + (int) (sequences[slot] & 1L) * COPY_SIZE;
+        byte[] save = new byte[segment.getInt(offset + LENGTH_OFFSET)];
+        segment.get(offset + HEADER_SIZE, save);
+        return ByteBuffer.wrap(save);
+    }
+
+    /**
+     * Reads the sequence number of a copy, checking it was written whole and in the
+     * copy its sequence number belongs to.
+     *
+     * @return The sequence number, or 0 if the copy was never written or was cut short.
+     */
+    private long validSequence(MappedByteBuffer segment, int offset) {
+        int length = segment.getInt(offset + LENGTH_OFFSET);
+        if (length <= 0 || length > COPY_SIZE - HEADER_SIZE || checksum(segment, offset, length) != segment.getInt(offset)) {
+            return 0L;
+        }
+        long sequence = segment.getLong(offset + SEQUENCE_OFFSET);
+        boolean secondCopy = offset % SLOT_SIZE != 0;
+        return sequence > 0L && ((sequence & 1L) == 1L) == secondCopy ? sequence : 0L;
+    }
+
+    private int checksum(MappedByteBuffer segment, int offset, int length) {
+        crc.reset();
+        crc.update(segment.slice(offset + LENGTH_OFFSET, HEADER_SIZE - LENGTH_OFFSET + length));
+        return (int) crc.getValue();
+    }
+
+    private int takeSlot() throws IOException {
+        int slot = slotsTaken;
+        if (slot / SLOTS_PER_SEGMENT == segments.size()) {
+            mapSegment(segments.size());
+        }
+        sequences = growSequences(slot);
+        slotsTaken++;
+        return slot;
+    }
+
+    private long[] growSequences(int slot) {
+        return slot < sequences.length ? sequences : Arrays.copyOf(sequences, Math.max(sequences.length * 2, slot + 1));
+    }
+
+    private MappedByteBuffer mapSegment(int number) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping outlives the channel, and the file stays sparse until its slots are written
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLOTS_PER_SEGMENT * SLOT_SIZE);
+            segments.add(segment);
+            return segment;
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_EXTENSION);
+    }
+
+    /**
+     * Finds the slot of a player id, probing the entries after its hash one by one.
+     *
+     * @return The slot, or -1 if the id has none.
+     */
+    private int find(long most, long least) {
+        int mask = indexSlots.length - 1;
+        for (int i = hash(most, least) & mask; indexSlots[i] != 0; i = (i + 1) & mask) {
+            if (indexMost[i] == most && indexLeast[i] == least) {
+                return indexSlots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void index(long most, long least, int slot) {
+        if (find(most, least) >= 0) {
+            insert(most, least, slot);
+            return;
+        }
+        // Keeping the table at most half full keeps the probes short
+        if ((playerCount + 1) * 2 > indexSlots.length) {
+            long[] oldMost = indexMost;
+            long[] oldLeast = indexLeast;
+            int[] oldSlots = indexSlots;
+            indexMost = new long[oldSlots.length * 2];
+            indexLeast = new long[oldSlots.length * 2];
+            indexSlots = new int[oldSlots.length * 2];
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != 0) {
+                    insert(oldMost[i], oldLeast[i], oldSlots[i] - 1);
+                }
+            }
+        }
+        insert(most, least, slot);
+        playerCount++;
+    }
+
+    private void insert(long most, long least, int slot) {
+        int mask = indexSlots.length - 1;
+        int i = hash(most, least) & mask;
+        while (indexSlots[i] != 0 && (indexMost[i] != most || indexLeast[i] != least)) {
+            i = (i + 1) & mask;
+        }
+        indexMost[i] = most;
+        indexLeast[i] = least;
+        indexSlots[i] = slot + 1;
+    }
+
+    private static int hash(long most, long least) {
+        long h = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,5 +1,7 @@
 package com.heisenbergenigma.utils;
 
+import com.heisenbergenigma.ui.GameConsole;
+
 /**
  * The Narrator class provides a static method for narrating messages within the game.
  * It is used to display text to the player, aiding in storytelling and providing
@@ -13,7 +15,18 @@ public class Narrator {
      * @param message The message to be narrated.
      */
     public static void narrate(String message) {
-        System.out.println(GameUtils.ANSI_PURPLE + message + GameUtils.ANSI_RESET);
+        GameConsole.out().println(format(message));
+    }
+
+    /**
+     * Returns a message styled the way the narrator prints it, for callers that
+     * collect their output before writing it.
+     *
+     * @param message The message to be narrated.
+     * @return The message wrapped in the narrator's colors.
+     */
+    public static String format(String message) {
+        return GameUtils.ANSI_PURPLE + message + GameUtils.ANSI_RESET;
     }
 
 }
@@ -1,4 +1,485 @@
 package com.heisenbergenigma.utils;
 
-    public class SaveLoadManager {
+import com.heisenbergenigma.items.ItemCatalog;
+import com.heisenbergenigma.player.Player;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * The SaveLoadManager class saves a player's progress to a file and loads it back.
+ * Every player has one save file, named after their id, in the manager's directory,
+ * unless the manager keeps its saves in a {@link MappedSaveStore}, as a server does.
+ * Names are not unique, so a save is only ever found by its player's id or, in a
+ * directory of one player's machine, by exactly the name it was saved under.
+ * <p>
+ * A save is a small binary record, all numbers big-endian:
+ * <pre>
+ *   int    magic             "HESV"
+ *   short  version           {@value #VERSION}
+ *   text   player name
+ *   long   player ID, most significant bits
+ *   long   player ID, least significant bits
+ *   text   id of the level being played
+ *   short  row, short column of the player
+ *   long   {@link com.heisenbergenigma.main.GameState} flags, one bit per flag
+ *   long   solved puzzles of the level, one bit per puzzle in world content order
+ *   long   NPCs of the level who have spoken, one bit per NPC in world content order
+ *   long   sequence number of the last {@link SessionJournal} entry the save includes
+ *   short  number of items, then per item: short {@link ItemCatalog} id
+ *   int    CRC-32 of everything before it
+ * </pre>
+ * where text is a short length followed by that many bytes of UTF-8. Only saves of
+ * version {@value #VERSION} are read: the versions before it were never released.
+ * A save with a full inventory takes about a hundred bytes and is encoded into a
+ * buffer the manager reuses.
+ * <p>
+ * A save is written to a temporary file next to the save file and forced to disk,
+ * then renamed over the save file, so a crash in the middle of a save leaves the
+ * previous save in place rather than a torn one. A save kept in a store is copied
+ * into memory instead and reaches the disk at the next {@link #sync()}. Saves are
+ * snapshots taken every so many journal entries, the journal records the turns in between.
+ * <p>
+ * A manager can be shared between threads, its saves and loads take turns.
+ */
+public class SaveLoadManager {
+    // "HESV", marks a file as a save of this game
+    public static final int MAGIC = 0x48455356;
+    public static final int VERSION = 4;
+    // Directory the game keeps its saves in, relative to the working directory
+    public static final String DEFAULT_DIRECTORY = "saves";
+    private static final String EXTENSION = ".sav";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final Path directory;
+    // Store the saves are kept in, null to keep one file per player
+    private final MappedSaveStore store;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Constructs a SaveLoadManager keeping its saves in the given directory. The
+     * directory is created by the first save.
+     *
+     * @param directory The directory of the save files.
+     */
+    public SaveLoadManager(Path directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Constructs a SaveLoadManager keeping its saves in the given store, and the
+     * journals of the games in the given directory.
+     *
+     * @param directory The directory of the journals.
+     * @param store     The store of the saves, or null to keep one file per player in the directory.
+     */
+    public SaveLoadManager(Path directory, MappedSaveStore store) {
+        this.directory = directory;
+        this.store = store;
+    }
+
+    /**
+     * Saves a player's progress, replacing their previous save.
+     *
+     * @param save The progress to save.
+     * @throws IOException if the save cannot be written.
+     */
+    public synchronized void save(SaveGame save) throws IOException {
+        ByteBuffer encoded = encode(save);
+        if (store != null) {
+            store.put(save.getPlayerId(), encoded);
+            return;
+        }
+        Files.createDirectories(directory);
+        Path target = pathFor(save.getPlayerId());
+        replace(target, encoded);
+    }
+
+    /**
+     * Makes sure the saves made so far are on disk. Saves kept in files are forced to
+     * disk as they are made, saves kept in a store are forced together here.
+     */
+    public void sync() {
+        if (store != null) {
+            store.force();
+        }
+    }
+
+    /**
+     * Replaces a file of the save directory with new content: the content is written
+     * to a temporary file and forced to disk, the temporary file is renamed over the
+     * file and the rename is forced to disk too.
+     *
+     * @param target  The file to replace.
+     * @param content The new content, from its position to its limit.
+     * @throws IOException if the file cannot be replaced.
+     */
+    static void replace(Path target, ByteBuffer content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_EXTENSION);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // A rename is only durable once its directory is, not every platform can force a directory
+        try (FileChannel dir = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // The rename is still atomic, only its durability is left to the file system
+        }
+    }
+
+    /**
+     * Loads the progress last saved under exactly the given name. The save files are
+     * looked through for the ones saved under the name, and the latest of them is
+     * loaded. Saves kept in a store are shared by the players of a server and are
+     * only loaded with their player's id, see {@link #load(UUID, String)}.
+     *
+     * @param playerName The name the player saved under, as they typed it.
+     * @return The saved progress, or null if no save has this name.
+     * @throws IOException if the save directory cannot be read.
+     * @throws IllegalStateException if the saves are kept in a store.
+     */
+    public synchronized SaveGame load(String playerName) throws IOException {
+        if (store != null) {
+            throw new IllegalStateException("Saves kept in a store are loaded by player id");
+        }
+        SaveGame latest = null;
+        FileTime latestTime = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                SaveGame save;
+                try {
+                    save = decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+                } catch (IOException e) {
+                    // A damaged save of another player must not keep this one from loading
+                    continue;
+                }
+                FileTime time = Files.getLastModifiedTime(file);
+                if (save.getPlayerName().equals(playerName) && (latestTime == null || time.compareTo(latestTime) > 0)) {
+                    latest = save;
+                    latestTime = time;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return latest;
+    }
+
+    /**
+     * Loads the saved progress of a given player, found by their id. The save must
+     * also have been saved under exactly the given name.
+     *
+     * @param playerId   The id of the player.
+     * @param playerName The name of the player, as they typed it.
+     * @return The saved progress, or null if the player has no save under this name.
+     * @throws IOException if the save cannot be read or is not a valid save.
+     */
+    public synchronized SaveGame load(UUID playerId, String playerName) throws IOException {
+        SaveGame save;
+        if (store != null) {
+            ByteBuffer stored = store.get(playerId);
+            if (stored == null) {
+                return null;
+            }
+            save = decode(stored);
+        } else {
+            try {
+                save = decode(ByteBuffer.wrap(Files.readAllBytes(pathFor(playerId))));
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+        return save.getPlayerId().equals(playerId) && save.getPlayerName().equals(playerName) ? save : null;
+    }
+
+    /**
+     * Tells whether a save can only be loaded with its player's id. The players of a
+     * server share its store, and a name alone would let any of them load the game of
+     * another.
+     *
+     * @return true if the saves are kept in a store.
+     */
+    public boolean needsPlayerId() {
+        return store != null;
+    }
+
+    /**
+     * Returns the file a player's progress is saved in.
+     *
+     * @param playerId The id of the player.
+     * @return The path of the save file.
+     */
+    public Path pathFor(UUID playerId) {
+        return directory.resolve(playerId + EXTENSION);
+    }
+
+    /**
+     * Returns the file a player's journal is kept in, named after their id like their
+     * save file, so two players of the same name never write to the same journal.
+     *
+     * @param playerId The id of the player.
+     * @return The path of the journal.
+     */
+    public Path journalPathFor(UUID playerId) {
+        return directory.resolve(playerId + JOURNAL_EXTENSION);
+    }
+
+    /**
+     * Encodes a save into the manager's buffer, growing the buffer if the save doesn't fit.
+     *
+     * @param save The progress to encode.
+     * @return The buffer, positioned at the start of the encoded save.
+     */
+    ByteBuffer encode(SaveGame save) {
+        while (true) {
+            buffer.clear();
+            try {
+                buffer.putInt(MAGIC);
+                buffer.putShort((short) VERSION);
+                putText(save.getPlayerName());
+                buffer.putLong(save.getPlayerId().getMostSignificantBits());
+                buffer.putLong(save.getPlayerId().getLeastSignificantBits());
+                putText(save.getLevelId());
+                buffer.putShort((short) save.getRow());
+                buffer.putShort((short) save.getCol());
+                buffer.putLong(save.getFlags());
+                buffer.putLong(save.getSolvedPuzzles());
+                buffer.putLong(save.getMetNpcs());
+                buffer.putLong(save.getJournalSequence());
+                int[] itemIds = save.itemIds;
+                buffer.putShort((short) itemIds.length);
+                for (int itemId : itemIds) {
+                    buffer.putShort((short) itemId);
+                }
+                crc.reset();
+                crc.update(buffer.array(), 0, buffer.position());
+                buffer.putInt((int) crc.getValue());
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Decodes a save.
+     *
+     * @param bytes A buffer holding the encoded save and nothing else.
+     * @return The saved progress.
+     * @throws IOException if the bytes are not a valid save.
+     */
+    SaveGame decode(ByteBuffer bytes) throws IOException {
+        try {
+            if (bytes.getInt() != MAGIC) {
+                throw new IOException("Not a saved game");
+            }
+            int version = bytes.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            int end = bytes.limit() - Integer.BYTES;
+            crc.reset();
+            crc.update(bytes.array(), bytes.arrayOffset(), end);
+            if ((int) crc.getValue() != bytes.getInt(end)) {
+                throw new IOException("The saved game is damaged");
+            }
+            bytes.limit(end);
+            String playerName = getText(bytes);
+            UUID playerId = new UUID(bytes.getLong(), bytes.getLong());
+            String levelId = getText(bytes);
+            int row = bytes.getShort();
+            int col = bytes.getShort();
+            long flags = bytes.getLong();
+            long solvedPuzzles = bytes.getLong();
+            long metNpcs = bytes.getLong();
+            long journalSequence = bytes.getLong();
+            int itemCount = bytes.getShort() & 0xFFFF;
+            int[] itemIds = new int[itemCount];
+            for (int i = 0; i < itemCount; i++) {
+                itemIds[i] = bytes.getShort();
+                if (!ItemCatalog.contains(itemIds[i])) {
+                    throw new IOException("The saved game holds an unknown item");
+                }
+            }
+            return new SaveGame(playerName, playerId, levelId, row, col, flags, solvedPuzzles, metNpcs, journalSequence, itemIds);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("The saved game is damaged", e);
+        }
+    }
+
+    private void putText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Text too long to save: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getText(ByteBuffer bytes) {
+        int length = bytes.getShort() & 0xFFFF;
+        String text = new String(bytes.array(), bytes.arrayOffset() + bytes.position(), length, StandardCharsets.UTF_8);
+        bytes.position(bytes.position() + length);
+        return text;
+    }
+
+    /**
+     * The SaveGame class is the progress of one player at one moment: who they are,
+     * where they are, what they hold and what they have done.
+     */
+    public static class SaveGame {
+        private final String playerName;
+        private final UUID playerId;
+        private final String levelId;
+        private final int row;
+        private final int col;
+        private final long flags;
+        private final long solvedPuzzles;
+        private final long metNpcs;
+        private final long journalSequence;
+        private final int[] itemIds;
+
+        /**
+         * Constructs a SaveGame.
+         *
+         * @param playerName    The name of the player.
+         * @param playerId      The unique ID of the player.
+         * @param levelId       The id of the level being played.
+         * @param row           The row the player stands on.
+         * @param col           The column the player stands on.
+         * @param flags         The packed flags of the playthrough's GameState.
+         * @param solvedPuzzles   The solved puzzles of the level, bit i for its i-th puzzle.
+         * @param metNpcs         The NPCs of the level who have spoken, bit i for its i-th NPC.
+         * @param journalSequence The sequence number of the last journal entry the save includes, 0 for none.
+         * @param itemIds         The {@link ItemCatalog} ids of the items in the player's inventory, copied.
+         */
+        public SaveGame(String playerName, UUID playerId, String levelId, int row, int col,
+                        long flags, long solvedPuzzles, long metNpcs, long journalSequence, int[] itemIds) {
+            this.playerName = playerName;
+            this.playerId = playerId;
+            this.levelId = levelId;
+            this.row = row;
+            this.col = col;
+            this.flags = flags;
+            this.solvedPuzzles = solvedPuzzles;
+            this.metNpcs = metNpcs;
+            this.journalSequence = journalSequence;
+            // A copy, since a save may be written by another thread while the player picks up items
+            this.itemIds = itemIds.clone();
+        }
+
+        /**
+         * Returns this save, including the journal up to a given entry.
+         *
+         * @param sequence The sequence number of the last journal entry included.
+         * @return A save that differs from this one only by its journal sequence.
+         */
+        public SaveGame withJournalSequence(long sequence) {
+            return new SaveGame(playerName, playerId, levelId, row, col, flags, solvedPuzzles, metNpcs, sequence, itemIds);
+        }
+
+        /**
+         * Creates the saved player, holding the saved items.
+         *
+         * @return The player.
+         */
+        public Player createPlayer() {
+            Player player = new Player(playerName, playerId);
+            for (int itemId : itemIds) {
+                player.addItemToInventory(itemId);
+            }
+            return player;
+        }
+
+        /**
+         * @return The name of the player.
+         */
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        /**
+         * @return The unique ID of the player.
+         */
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        /**
+         * @return The id of the level being played.
+         */
+        public String getLevelId() {
+            return levelId;
+        }
+
+        /**
+         * @return The row the player stands on.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return The column the player stands on.
+         */
+        public int getCol() {
+            return col;
+        }
+
+        /**
+         * @return The packed flags of the playthrough's GameState.
+         */
+        public long getFlags() {
+            return flags;
+        }
+
+        /**
+         * @return The solved puzzles of the level, bit i for its i-th puzzle.
+         */
+        public long getSolvedPuzzles() {
+            return solvedPuzzles;
+        }
+
+        /**
+         * @return The NPCs of the level who have spoken, bit i for its i-th NPC.
+         */
+        public long getMetNpcs() {
+            return metNpcs;
+        }
+
+        /**
+         * @return The sequence number of the last journal entry the save includes, 0 for none.
+         */
+        public long getJournalSequence() {
+            return journalSequence;
+        }
+
+        /**
+         * @return The {@link ItemCatalog} ids of the items in the player's inventory.
+         */
+        public int[] getItemIds() {
+            return itemIds.clone();
+        }
     }
+}
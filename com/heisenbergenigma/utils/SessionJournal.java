@@ -0,0 +1,507 @@
+package com.heisenbergenigma.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * The SessionJournal class records every line a player types during a game, so a
+ * game that ends in a crash can be loaded again with nothing lost but the last
+ * moments before it. Saving the whole game on every turn would force a file to disk
+ * for every move; the journal writes a few bytes per line instead, and the game is
+ * saved only every {@value #DEFAULT_SNAPSHOT_INTERVAL} lines.
+ * <p>
+ * The file starts with a header, then holds one record per line:
+ * <pre>
+ *   int    magic, "HEJL"
+ *   short  format version
+ *   long   player id, most significant bits
+ *   long   player id, least significant bits
+ *
+ *   long   sequence number, counting the player's lines from 1
+ *   int    length of the line
+ *   bytes  the line as typed, in UTF-8 and without its terminator
+ *   int    CRC32 of the sequence number, the length and the line
+ * </pre>
+ * Lines are appended to a buffer on the session's thread, which returns at once. A
+ * single writer thread shared by every journal writes what has built up since its
+ * last visit and forces it to disk, so the lines typed while a write is under way
+ * go to disk together with the next one.
+ * <p>
+ * A snapshot is a save of the game handed to the journal along with the sequence
+ * number of the last line it includes. The writer saves it through the
+ * {@link SaveLoadManager} and, once the save is synced to disk, drops the records it
+ * covers from the journal. When the snapshot covers every line written, as it mostly
+ * does, the file is cut back to its header in place; lines typed ahead of the game
+ * are left for a later snapshot, unless the file has grown past
+ * {@value #MAX_UNCOMPACTED_SIZE} bytes of records and is rewritten with them alone. To
+ * load a game, the save is read and the lines of the journal after its sequence
+ * number are typed again, see {@link #recover(SaveLoadManager, UUID, long)}.
+ * <p>
+ * A journal closed with every line in its synced snapshot is deleted, so only the
+ * games being played, or put aside to be rebuilt, have a journal file. A deletion
+ * lost in a crash leaves a file whose lines are all in the save, which loading skips.
+ * <p>
+ * Writing fails quietly, the failure is kept for the session to report with
+ * {@link #takeFailure()}. A journal that failed once records no more lines, since
+ * the ones it lost would leave a gap no replay can get past.
+ */
+public class SessionJournal implements Closeable {
+    // First bytes of every journal, "HEJL"
+    public static final int MAGIC = 0x48454A4C;
+    // Version of the format written
+    public static final int VERSION = 1;
+    // Lines after which the game is due to be saved again
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + 2 * Long.BYTES;
+    private static final int RECORD_OVERHEAD = Long.BYTES + 2 * Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Bytes of records past which a journal holding lines after its snapshot is rewritten without the others
+    private static final int MAX_UNCOMPACTED_SIZE = 64 * 1024;
+
+    // Journals with lines or a snapshot the writer has not handled yet
+    private static final BlockingQueue<SessionJournal> DIRTY = new LinkedBlockingQueue<>();
+    private static Thread writer;
+
+    private final SaveLoadManager saves;
+    private final Path path;
+    private final UUID playerId;
+    private final int snapshotInterval;
+    // Held by the writer while it touches the file, so closing waits for a write under way
+    private final Object fileLock = new Object();
+    private FileChannel channel;
+    // Sequence number of the last line of a snapshot saved but not synced yet, -1 for none
+    private long savedSequence = -1;
+    // Sequence number of the last line of the latest snapshot synced to disk
+    private long syncedSequence;
+    // Sequence number of the last line written to the file
+    private long writtenSequence;
+
+    // Records appended and not handed to the writer yet, the writer swaps the two buffers
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private final CRC32 crc = new CRC32();
+    private long nextSequence;
+    // Sequence number of the last line the game has read, replayed lines included
+    private long lastConsumed;
+    private int entriesSinceSnapshot;
+    private SaveLoadManager.SaveGame pendingSnapshot;
+    private final List<String> recoveredLines;
+    private boolean queued;
+    private boolean closed;
+    private boolean failed;
+    // Whether a save of the game exists, one this journal follows on from
+    private boolean hasSnapshot;
+    private IOException failure;
+
+    private SessionJournal(SaveLoadManager saves, Path path, UUID playerId, int snapshotInterval,
+                           long lastSnapshotted, List<byte[]> kept) throws IOException {
+        this.saves = saves;
+        this.path = path;
+        this.playerId = playerId;
+        this.snapshotInterval = snapshotInterval;
+        // The file is rewritten with the kept records only, dropping a torn record at its end
+        ByteBuffer content = ByteBuffer.allocate(HEADER_SIZE + kept.stream().mapToInt(line -> RECORD_OVERHEAD + line.length).sum());
+        putHeader(content, playerId);
+        List<String> lines = new ArrayList<>(kept.size());
+        long sequence = lastSnapshotted;
+        for (byte[] line : kept) {
+            putRecord(content, crc, ++sequence, line, 0, line.length);
+            lines.add(new String(line, StandardCharsets.UTF_8));
+        }
+        content.flip();
+        Files.createDirectories(path.getParent());
+        SaveLoadManager.replace(path, content);
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.recoveredLines = List.copyOf(lines);
+        this.nextSequence = sequence + 1;
+        this.writtenSequence = sequence;
+        this.syncedSequence = lastSnapshotted;
+        this.lastConsumed = lastSnapshotted;
+        this.entriesSinceSnapshot = kept.size();
+    }
+
+    /**
+     * Starts an empty journal for a new game, replacing any journal the player kept before.
+     *
+     * @param saves    The manager the journal's snapshots are saved with.
+     * @param playerId The id of the player.
+     * @return The journal.
+     * @throws IOException if the journal cannot be created.
+     */
+    public static SessionJournal create(SaveLoadManager saves, UUID playerId) throws IOException {
+        return new SessionJournal(saves, saves.journalPathFor(playerId), playerId,
+                DEFAULT_SNAPSHOT_INTERVAL, 0L, List.of());
+    }
+
+    /**
+     * Opens the journal of a loaded game, keeping the lines recorded after its save.
+     * They are returned by {@link #getRecoveredLines()}, to be typed again before
+     * anything new. A journal written for another player id, or holding no lines
+     * that follow on from the save, is started afresh.
+     *
+     * @param saves        The manager the journal's snapshots are saved with.
+     * @param playerId     The id of the player, as saved.
+     * @param lastSequence The sequence number of the last line the save includes.
+     * @return The journal.
+     * @throws IOException if the journal cannot be read or rewritten.
+     */
+    public static SessionJournal recover(SaveLoadManager saves, UUID playerId, long lastSequence) throws IOException {
+        Path path = saves.journalPathFor(playerId);
+        SessionJournal journal = new SessionJournal(saves, path, playerId, DEFAULT_SNAPSHOT_INTERVAL, lastSequence,
+                readTail(path, playerId, lastSequence));
+        journal.hasSnapshot = true;
+        return journal;
+    }
+
+    /**
+     * Reads the lines of a journal that follow a given one. Reading stops at the
+     * first record that is torn, damaged or out of sequence, as the last record is
+     * after a crash in the middle of a write.
+     *
+     * @param path         The journal file.
+     * @param playerId     The id of the player the journal must belong to.
+     * @param lastSequence The sequence number of the last line not wanted.
+     * @return The lines after it, in the order they were typed.
+     * @throws IOException if the file cannot be read.
+     */
+    static List<byte[]> readTail(Path path, UUID playerId, long lastSequence) throws IOException {
+        ByteBuffer bytes;
+        try {
+            bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        List<byte[]> tail = new ArrayList<>();
+        CRC32 check = new CRC32();
+        try {
+            if (bytes.getInt() != MAGIC || bytes.getShort() != VERSION
+                    || bytes.getLong() != playerId.getMostSignificantBits()
+                    || bytes.getLong() != playerId.getLeastSignificantBits()) {
+                return List.of();
+            }
+            while (bytes.remaining() >= RECORD_OVERHEAD) {
+                int recordStart = bytes.position();
+                long sequence = bytes.getLong();
+                int length = bytes.getInt();
+                if (length < 0 || length > bytes.remaining() - Integer.BYTES) {
+                    break;
+                }
+                check.reset();
+                check.update(bytes.array(), recordStart, Long.BYTES + Integer.BYTES + length);
+                byte[] line = new byte[length];
+                bytes.get(line);
+                if (bytes.getInt() != (int) check.getValue()) {
+                    break;
+                }
+                if (sequence > lastSequence) {
+                    // A gap means the records belong to another save, none of them can be replayed
+                    if (sequence != lastSequence + tail.size() + 1) {
+                        return List.of();
+                    }
+                    tail.add(line);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // A header cut short is a journal that was never written
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the lines recovered from the journal of a loaded game.
+     *
+     * @return The lines, empty for a new game.
+     */
+    public List<String> getRecoveredLines() {
+        return recoveredLines;
+    }
+
+    /**
+     * Records a line the player typed. The line is copied into the journal's buffer
+     * and reaches the disk with the writer's next batch. Nothing is recorded once a
+     * write has failed.
+     *
+     * @param line   The bytes the line was read into.
+     * @param offset The index of its first byte.
+     * @param length The number of its bytes.
+     */
+    public synchronized void append(byte[] line, int offset, int length) {
+        if (failed) {
+            return;
+        }
+        if (pending.remaining() < RECORD_OVERHEAD + length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + RECORD_OVERHEAD + length));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        long sequence = nextSequence++;
+        putRecord(pending, crc, sequence, line, offset, length);
+        lastConsumed = sequence;
+        entriesSinceSnapshot++;
+        markDirty();
+    }
+
+    /**
+     * Notes that the game read one of the recovered lines, which are already in the journal.
+     */
+    public synchronized void replayed() {
+        if (lastConsumed + 1 < nextSequence) {
+            lastConsumed++;
+        }
+    }
+
+    /**
+     * Checks whether enough lines were recorded since the last snapshot for the game
+     * to be saved again.
+     *
+     * @return boolean indicating if a snapshot is due.
+     */
+    public synchronized boolean isSnapshotDue() {
+        return entriesSinceSnapshot >= snapshotInterval && pendingSnapshot == null;
+    }
+
+    /**
+     * Hands a save of the game to the writer, which saves it and compacts the journal.
+     * The save includes every line the game has read so far, and must have been taken
+     * since the last one of them was read.
+     *
+     * @param save The save of the game.
+     */
+    public synchronized void snapshot(SaveLoadManager.SaveGame save) {
+        pendingSnapshot = save.withJournalSequence(lastConsumed);
+        hasSnapshot = true;
+        entriesSinceSnapshot = (int) (nextSequence - 1 - lastConsumed);
+        markDirty();
+    }
+
+    /**
+     * Returns the first failure to write the journal or a snapshot, once.
+     *
+     * @return The failure, or null if there was none or it was taken already.
+     */
+    public synchronized IOException takeFailure() {
+        IOException taken = failure;
+        failure = null;
+        return taken;
+    }
+
+    /**
+     * Checks whether the game can be rebuilt from its save and this journal once the
+     * journal is closed: a snapshot was taken and no write ever failed.
+     *
+     * @return boolean indicating if the game can be rebuilt.
+     */
+    public synchronized boolean canRebuild() {
+        return hasSnapshot && !failed;
+    }
+
+    /**
+     * Writes out the lines and the snapshot not written yet and closes the journal.
+     * The file is deleted if the synced snapshot includes all of its lines.
+     *
+     * @throws IOException if they cannot be written, or an earlier write failed and was not taken.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (fileLock) {
+            commit();
+            compactSaved();
+            boolean covered;
+            synchronized (this) {
+                closed = true;
+                covered = hasSnapshot && !failed && syncedSequence >= writtenSequence;
+            }
+            channel.close();
+            if (covered) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+        }
+        IOException failed = takeFailure();
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    private void markDirty() {
+        if (!queued && !closed) {
+            queued = true;
+            DIRTY.add(this);
+            startWriter();
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writer == null) {
+            writer = Thread.ofPlatform().daemon().name("journal-writer").start(SessionJournal::writeLoop);
+        }
+    }
+
+    /**
+     * Writes the journals that have something to write, until the process ends. All
+     * the journals waiting are written in one batch, and their snapshots saved, before
+     * any of them is compacted. Each compaction calls {@link SaveLoadManager#sync()}
+     * first; for saves kept in a store the first one forces the snapshots of the whole
+     * batch and the others find nothing left to force.
+     */
+    private static void writeLoop() {
+        List<SessionJournal> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(DIRTY.take());
+                DIRTY.drainTo(batch);
+                for (SessionJournal journal : batch) {
+                    synchronized (journal.fileLock) {
+                        if (journal.channel.isOpen()) {
+                            journal.commit();
+                        }
+                    }
+                }
+                for (SessionJournal journal : batch) {
+                    synchronized (journal.fileLock) {
+                        if (journal.channel.isOpen()) {
+                            journal.compactSaved();
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the records appended since the last batch and forces them to disk, then
+     * saves the pending snapshot. Called with the file lock held.
+     */
+    private void commit() {
+        ByteBuffer batch;
+        SaveLoadManager.SaveGame snapshot;
+        long batchSequence;
+        synchronized (this) {
+            queued = false;
+            batchSequence = nextSequence - 1;
+            batch = pending;
+            pending = writing;
+            writing = batch;
+            snapshot = pendingSnapshot;
+            pendingSnapshot = null;
+        }
+        batch.flip();
+        try {
+            if (batch.hasRemaining()) {
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                writtenSequence = batchSequence;
+            }
+            if (snapshot != null) {
+                saves.save(snapshot);
+                savedSequence = snapshot.getJournalSequence();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Syncs the saves and drops the records of the snapshot saved by the last commit,
+     * if any. Called with the file lock held.
+     */
+    private void compactSaved() {
+        if (savedSequence < 0) {
+            return;
+        }
+        long sequence = savedSequence;
+        savedSequence = -1;
+        try {
+            // Only once the snapshot is on disk can the lines it includes go
+            saves.sync();
+            syncedSequence = sequence;
+            compact(sequence);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private synchronized void fail(IOException e) {
+        failed = true;
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Drops the records a snapshot includes: the file is cut back to its header if the
+     * snapshot includes them all, and rewritten with the rest once the file has grown
+     * past {@value #MAX_UNCOMPACTED_SIZE} bytes of records.
+     *
+     * @param lastSequence The sequence number of the last line the snapshot includes.
+     */
+    private void compact(long lastSequence) throws IOException {
+        if (lastSequence >= writtenSequence) {
+            channel.truncate(HEADER_SIZE);
+            channel.force(false);
+            return;
+        }
+        if (channel.size() < HEADER_SIZE + MAX_UNCOMPACTED_SIZE) {
+            // Loading skips the records the save includes, a later snapshot will catch up with the rest
+            return;
+        }
+        List<byte[]> kept = readTail(path, playerId, lastSequence);
+        ByteBuffer content = ByteBuffer.allocate(HEADER_SIZE + kept.stream().mapToInt(line -> RECORD_OVERHEAD + line.length).sum());
+        putHeader(content, playerId);
+        long sequence = lastSequence;
+        CRC32 check = new CRC32();
+        for (byte[] line : kept) {
+            putRecord(content, check, ++sequence, line, 0, line.length);
+        }
+        content.flip();
+        channel.close();
+        try {
+            SaveLoadManager.replace(path, content);
+        } finally {
+            // The file is open again whether or not it was replaced, so the journal can still be closed
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, UUID playerId) {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putLong(playerId.getMostSignificantBits());
+        buffer.putLong(playerId.getLeastSignificantBits());
+    }
+
+    private static void putRecord(ByteBuffer buffer, CRC32 crc, long sequence, byte[] line, int offset, int length) {
+        int recordStart = buffer.position();
+        buffer.putLong(sequence);
+        buffer.putInt(length);
+        buffer.put(line, offset, length);
+        crc.reset();
+        crc.update(buffer.array(), recordStart, Long.BYTES + Integer.BYTES + length);
+        buffer.putInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,206 @@
+package com.heisenbergenigma.world;
+
+/**
+ * The ChunkedGrid class is a sparse two-dimensional grid of any size. The grid is
+ * split into square chunks of {@value #CHUNK_SIZE} by {@value #CHUNK_SIZE} cells and
+ * a chunk is only allocated once a cell in it is set, so the empty areas of a large
+ * level cost one null reference per chunk.
+ * <p>
+ * Cells are addressed by primitive row and column, and a lookup is two array reads
+ * whatever the size of the grid.
+ *
+ * @param <T> The type of the cell contents.
+ */
+public class ChunkedGrid<T> {
+    // Chunks are CHUNK_SIZE cells wide and high, CHUNK_SIZE being 1 << CHUNK_SHIFT
+    public static final int CHUNK_SHIFT = 4;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final int rows;
+    private final int cols;
+    // Number of chunks across a row of the grid
+    private final int chunkCols;
+    // Chunks in row-major order, null until a cell in the chunk is set
+    private final Object[][] chunks;
+    private int allocatedChunks;
+    private int size;
+
+    /**
+     * Constructs an empty ChunkedGrid.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @throws IllegalArgumentException if either dimension is not positive.
+     */
+    public ChunkedGrid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("A grid needs at least one cell: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkCols = (cols + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunkRows = (rows + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Object[chunkRows * chunkCols][];
+    }
+
+    /**
+     * Constructs a ChunkedGrid holding the cells of a dense array.
+     *
+     * @param cells The cells, indexed [row][col]. Every row must be as long as the first.
+     * @param <T>   The type of the cell contents.
+     * @return The grid.
+     */
+    public static <T> ChunkedGrid<T> of(T[][] cells) {
+        ChunkedGrid<T> grid = new ChunkedGrid<>(cells.length, cells[0].length);
+        for (int row = 0; row < cells.length; row++) {
+            for (int col = 0; col < cells[row].length; col++) {
+                if (cells[row][col] != null) {
+                    grid.set(row, col, cells[row][col]);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Checks whether a cell lies inside the grid.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return boolean indicating if the cell is inside the grid.
+     */
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * Returns the content of a cell.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The content, or null if the cell is empty or outside the grid.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int row, int col) {
+        if (!contains(row, col)) {
+            return null;
+        }
+        Object[] chunk = chunks[chunkIndex(row, col)];
+        return chunk == null ? null : (T) chunk[cellIndex(row, col)];
+    }
+
+    /**
+     * Sets the content of a cell, allocating its chunk if needed.
+     *
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param value The content, or null to empty the cell.
+     * @throws IndexOutOfBoundsException if the cell is outside the grid.
+     */
+    public void set(int row, int col, T value) {
+        if (!contains(row, col)) {
+            throw new IndexOutOfBoundsException("Cell " + row + "," + col + " is outside the " + rows + "x" + cols + " grid");
+        }
+        int index = chunkIndex(row, col);
+        Object[] chunk = chunks[index];
+        if (chunk == null) {
+            if (value == null) {
+                return;
+            }
+            chunk = new Object[CHUNK_SIZE * CHUNK_SIZE];
+            chunks[index] = chunk;
+            allocatedChunks++;
+        }
+        int cell = cellIndex(row, col);
+        if (chunk[cell] == null && value != null) {
+            size++;
+        } else if (chunk[cell] != null && value == null) {
+            size--;
+        }
+        chunk[cell] = value;
+    }
+
+    /**
+     * Returns the number of cells that are not empty.
+     *
+     * @return The number of filled cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of chunks allocated so far.
+     *
+     * @return The number of allocated chunks.
+     */
+    public int getAllocatedChunks() {
+        return allocatedChunks;
+    }
+
+    /**
+     * Calls the visitor for every cell that is not empty, chunk by chunk. Empty
+     * chunks are skipped without looking at their cells.
+     *
+     * @param visitor The visitor to call.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(CellVisitor<? super T> visitor) {
+        for (int index = 0; index < chunks.length; index++) {
+            Object[] chunk = chunks[index];
+            if (chunk == null) {
+                continue;
+            }
+            int top = (index / chunkCols) << CHUNK_SHIFT;
+            int left = (index % chunkCols) << CHUNK_SHIFT;
+            for (int cell = 0; cell < chunk.length; cell++) {
+                if (chunk[cell] != null) {
+                    visitor.visit(top + (cell >> CHUNK_SHIFT), left + (cell & CHUNK_MASK), (T) chunk[cell]);
+                }
+            }
+        }
+    }
+
+    private int chunkIndex(int row, int col) {
+        return (row >> CHUNK_SHIFT) * chunkCols + (col >> CHUNK_SHIFT);
+    }
+
+    private static int cellIndex(int row, int col) {
+        return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+    }
+
+    /**
+     * The CellVisitor interface is called with the cells of a grid that are not empty.
+     *
+     * @param <T> The type of the cell contents.
+     */
+    public interface CellVisitor<T> {
+        /**
+         * Visits one cell.
+         *
+         * @param row   The row of the cell.
+         * @param col   The column of the cell.
+         * @param value The content of the cell.
+         */
+        void visit(int row, int col, T value);
+    }
+}
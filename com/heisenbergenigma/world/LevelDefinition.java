@@ -0,0 +1,356 @@
+package com.heisenbergenigma.world;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The LevelDefinition class holds the content of one level as read from the world
+ * content: the grid and its labels, the descriptions of its cells, the NPCs and
+ * puzzles placed on it, and the texts narrated while it is played. Labels and
+ * descriptions are kept in {@link ChunkedGrid}s, so a large level with few named
+ * cells stays small.
+ * <p>
+ * A definition carries no game state, a {@link com.heisenbergenigma.locations.Location}
+ * builds the NPCs and puzzles of a playthrough from it.
+ */
+public class LevelDefinition {
+    // Stands for the player's name in the intro
+    public static final String PLAYER_PLACEHOLDER = "{player}";
+
+    private final String id;
+    private final String title;
+    private final String musicPath;
+    private final String nextLevelId;
+    private final String intro;
+    private final String completion;
+    private final String objective;
+    private final int exitRow;
+    private final int exitCol;
+    private final int startRow;
+    private final int startCol;
+    private final ChunkedGrid<String> labels;
+    private final ChunkedGrid<String> descriptions;
+    private final List<NpcPlacement> npcs;
+    private final List<PuzzlePlacement> puzzles;
+
+    /**
+     * Constructs a LevelDefinition.
+     *
+     * @param id           The id the level is known by in the world content.
+     * @param title        The title shown when the level starts.
+     * @param musicPath    The classpath location of the level's background music.
+     * @param nextLevelId  The id of the level played after this one, or null for the last level.
+     * @param intro        The greeting, with {@value #PLAYER_PLACEHOLDER} standing for the player's name.
+     * @param completion   The narration once every puzzle of the level is solved.
+     * @param objective    The objective shown with the completion narration.
+     * @param exitRow      The row of the cell that leaves the level, or -1 if the level has no exit.
+     * @param exitCol      The column of the cell that leaves the level, or -1 if the level has no exit.
+     * @param startRow     The row the player starts the level on.
+     * @param startCol     The column the player starts the level on.
+     * @param labels       The labels of the cells, which also give the size of the level.
+     * @param descriptions The descriptions of the cells, the same size as the labels.
+     * @param npcs         The NPCs placed on the grid.
+     * @param puzzles      The puzzles placed on the grid.
+     */
+    public LevelDefinition(String id, String title, String musicPath, String nextLevelId, String intro,
+                           String completion, String objective, int exitRow, int exitCol, int startRow,
+                           int startCol, ChunkedGrid<String> labels, ChunkedGrid<String> descriptions,
+                           List<NpcPlacement> npcs, List<PuzzlePlacement> puzzles) {
+        this.id = id;
+        this.title = title;
+        this.musicPath = musicPath;
+        this.nextLevelId = nextLevelId;
+        this.intro = intro;
+        this.completion = completion;
+        this.objective = objective;
+        this.exitRow = exitRow;
+        this.exitCol = exitCol;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.labels = labels;
+        this.descriptions = descriptions;
+        this.npcs = Collections.unmodifiableList(npcs);
+        this.puzzles = Collections.unmodifiableList(puzzles);
+    }
+
+    /**
+     * Returns the id the level is known by in the world content.
+     *
+     * @return The id of the level.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the title shown when the level starts.
+     *
+     * @return The title of the level.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the level's background music.
+     *
+     * @return The classpath location of the music.
+     */
+    public String getMusicPath() {
+        return musicPath;
+    }
+
+    /**
+     * Returns the level played after this one.
+     *
+     * @return The id of the next level, or null for the last level.
+     */
+    public String getNextLevelId() {
+        return nextLevelId;
+    }
+
+    /**
+     * Returns the greeting of the level for a player.
+     *
+     * @param playerName The name of the player.
+     * @return The intro with the player's name filled in.
+     */
+    public String getIntro(String playerName) {
+        return intro.replace(PLAYER_PLACEHOLDER, playerName);
+    }
+
+    /**
+     * Returns the greeting of the level as written in the world content.
+     *
+     * @return The intro, with the player placeholder.
+     */
+    public String getIntro() {
+        return intro;
+    }
+
+    /**
+     * Returns the narration once every puzzle of the level is solved.
+     *
+     * @return The completion narration.
+     */
+    public String getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Returns the objective shown with the completion narration.
+     *
+     * @return The objective.
+     */
+    public String getObjective() {
+        return objective;
+    }
+
+    /**
+     * Returns the row of the cell that leaves the level.
+     *
+     * @return The row of the exit, or -1 if the level has no exit.
+     */
+    public int getExitRow() {
+        return exitRow;
+    }
+
+    /**
+     * Returns the column of the cell that leaves the level.
+     *
+     * @return The column of the exit, or -1 if the level has no exit.
+     */
+    public int getExitCol() {
+        return exitCol;
+    }
+
+    /**
+     * Checks whether the given cell leaves the level.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return boolean indicating if the cell is the level's exit.
+     */
+    public boolean isExit(int row, int col) {
+        return row == exitRow && col == exitCol;
+    }
+
+    /**
+     * Returns the row the player starts the level on.
+     *
+     * @return The starting row.
+     */
+    public int getStartRow() {
+        return startRow;
+    }
+
+    /**
+     * Returns the column the player starts the level on.
+     *
+     * @return The starting column.
+     */
+    public int getStartCol() {
+        return startCol;
+    }
+
+    /**
+     * Returns the number of rows of the level.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return labels.getRows();
+    }
+
+    /**
+     * Returns the number of columns of the level.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return labels.getCols();
+    }
+
+    /**
+     * Returns the labels of the cells. Cells without a label are empty.
+     *
+     * @return The labels.
+     */
+    public ChunkedGrid<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Returns the descriptions of the cells. Cells without a description are empty.
+     *
+     * @return The descriptions.
+     */
+    public ChunkedGrid<String> getDescriptions() {
+        return descriptions;
+    }
+
+    /**
+     * Returns the NPCs placed on the grid.
+     *
+     * @return The NPC placements.
+     */
+    public List<NpcPlacement> getNpcs() {
+        return npcs;
+    }
+
+    /**
+     * Returns the puzzles placed on the grid.
+     *
+     * @return The puzzle placements.
+     */
+    public List<PuzzlePlacement> getPuzzles() {
+        return puzzles;
+    }
+
+    /**
+     * The NpcPlacement class is an NPC standing on one cell of a level.
+     */
+    public static class NpcPlacement {
+        private final int row;
+        private final int col;
+        private final String name;
+        private final String line;
+
+        /**
+         * Constructs an NpcPlacement.
+         *
+         * @param row  The row of the cell.
+         * @param col  The column of the cell.
+         * @param name The name of the NPC.
+         * @param line What the NPC says, without quotes.
+         */
+        public NpcPlacement(int row, int col, String name, String line) {
+            this.row = row;
+            this.col = col;
+            this.name = name;
+            this.line = line;
+        }
+
+        /**
+         * @return The row of the cell.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return The column of the cell.
+         */
+        public int getCol() {
+            return col;
+        }
+
+        /**
+         * @return The name of the NPC.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return What the NPC says, without quotes.
+         */
+        public String getLine() {
+            return line;
+        }
+    }
+
+    /**
+     * The PuzzlePlacement class is a puzzle on one cell of a level, with the
+     * parameters its type takes. Each parameter is a list of values.
+     */
+    public static class PuzzlePlacement {
+        private final int row;
+        private final int col;
+        private final String type;
+        private final List<List<String>> params;
+
+        /**
+         * Constructs a PuzzlePlacement.
+         *
+         * @param row    The row of the cell.
+         * @param col    The column of the cell.
+         * @param type   The puzzle type, as named in the world content.
+         * @param params The parameters of the puzzle, each a list of values.
+         */
+        public PuzzlePlacement(int row, int col, String type, List<List<String>> params) {
+            this.row = row;
+            this.col = col;
+            this.type = type;
+            this.params = Collections.unmodifiableList(params);
+        }
+
+        /**
+         * @return The row of the cell.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return The column of the cell.
+         */
+        public int getCol() {
+            return col;
+        }
+
+        /**
+         * @return The puzzle type, as named in the world content.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return The parameters, each a list of values.
+         */
+        public List<List<String>> getParams() {
+            return params;
+        }
+    }
+}
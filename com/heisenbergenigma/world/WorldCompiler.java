@@ -0,0 +1,442 @@
+package com.heisenbergenigma.world;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The WorldCompiler class is the build step that turns the world content source,
+ * {@value #DEFAULT_SOURCE}, into the binary form {@link WorldContent} loads. The
+ * source is a line-oriented text file documented at its top; the binary form starts
+ * with an index of the levels, so a single level can be decoded without reading the
+ * others:
+ * <pre>
+ *   int   magic "HEWD"
+ *   int   format version
+ *   int   number of levels
+ *   per level:
+ *     UTF  id
+ *     UTF  music
+ *     int  offset of the level from the start of the file
+ *     int  length of the level
+ * </pre>
+ * followed by every level, each written by {@link #writeLevel}.
+ * <p>
+ * Run it from the repository root with
+ * {@code java com.heisenbergenigma.world.WorldCompiler [source] [output]}.
+ */
+public class WorldCompiler {
+    public static final String DEFAULT_SOURCE = "com/heisenbergenigma/assets/world.txt";
+    public static final String DEFAULT_OUTPUT = "com/heisenbergenigma/assets/world.bin";
+    // Rows and columns are written as shorts
+    public static final int MAX_SIZE = Short.MAX_VALUE;
+
+    /**
+     * Parses the world content source.
+     *
+     * @param source The text of the source.
+     * @param name   The name of the source, used in error messages.
+     * @return The levels, in the order they are written.
+     * @throws IOException if the source is malformed.
+     */
+    public static List<LevelDefinition> parse(String source, String name) throws IOException {
+        List<LevelDefinition> levels = new ArrayList<>();
+        LevelBuilder level = null;
+        String[] lines = source.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            String keyword = space < 0 ? line : line.substring(0, space);
+            String value = space < 0 ? "" : unescape(line.substring(space + 1).strip());
+            String where = name + ":" + (i + 1) + ": ";
+            if (keyword.equals("level")) {
+                if (level != null) {
+                    levels.add(level.build());
+                }
+                level = new LevelBuilder(value, where);
+                continue;
+            }
+            if (level == null) {
+                throw new IOException(where + "\"" + keyword + "\" before the first level");
+            }
+            switch (keyword) {
+                case "title" -> level.title = value;
+                case "music" -> level.music = value;
+                case "next" -> level.next = value;
+                case "intro" -> level.intro = value;
+                case "complete" -> level.completion = value;
+                case "objective" -> level.objective = value;
+                case "exit" -> {
+                    String[] cell = split(value, "\\s+", 2, where);
+                    level.exitRow = parseIndex(cell[0], where);
+                    level.exitCol = parseIndex(cell[1], where);
+                }
+                case "start" -> {
+                    String[] cell = split(value, "\\s+", 2, where);
+                    level.startRow = parseIndex(cell[0], where);
+                    level.startCol = parseIndex(cell[1], where);
+                }
+                case "size" -> {
+                    String[] size = split(value, "\\s+", 2, where);
+                    level.sizeRows = parseIndex(size[0], where);
+                    level.sizeCols = parseIndex(size[1], where);
+                }
+                case "row" -> level.rows.add(value.split("\\s*\\|\\s*"));
+                case "label" -> {
+                    String[] parts = split(value, "\\s+", 3, where);
+                    level.labels.add(new CellText(parseIndex(parts[0], where), parseIndex(parts[1], where), parts[2]));
+                }
+                case "describe" -> {
+                    String[] parts = split(value, "\\s+", 3, where);
+                    level.descriptions.add(new CellText(parseIndex(parts[0], where), parseIndex(parts[1], where), parts[2]));
+                }
+                case "npc" -> {
+                    String[] parts = split(value, "\\s+", 3, where);
+                    String[] npc = split(parts[2], "\\s*\\|\\s*", 2, where);
+                    level.npcs.add(new LevelDefinition.NpcPlacement(
+                            parseIndex(parts[0], where), parseIndex(parts[1], where), npc[0], npc[1]));
+                }
+                case "puzzle" -> {
+                    String[] parts = split(value, "\\s+", 3, where);
+                    level.puzzles.add(new PuzzleBuilder(parseIndex(parts[0], where), parseIndex(parts[1], where), parts[2]));
+                }
+                case "param" -> {
+                    if (level.puzzles.isEmpty()) {
+                        throw new IOException(where + "param before the first puzzle of the level");
+                    }
+                    level.puzzles.get(level.puzzles.size() - 1).params.add(List.of(value.split("\\s*\\|\\s*")));
+                }
+                default -> throw new IOException(where + "unknown keyword \"" + keyword + "\"");
+            }
+        }
+        if (level != null) {
+            levels.add(level.build());
+        }
+        return levels;
+    }
+
+    /**
+     * Writes levels in the binary form.
+     *
+     * @param levels The levels to write.
+     * @return The binary world content.
+     * @throws IOException if a text is too long for the format.
+     */
+    public static byte[] compile(List<LevelDefinition> levels) throws IOException {
+        List<byte[]> blocks = new ArrayList<>();
+        for (LevelDefinition level : levels) {
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            writeLevel(level, new DataOutputStream(block));
+            blocks.add(block.toByteArray());
+        }
+
+        // The index is written once with empty offsets to measure it, the levels follow it
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(index);
+        out.writeInt(WorldContent.MAGIC);
+        out.writeInt(WorldContent.VERSION);
+        out.writeInt(levels.size());
+        for (LevelDefinition level : levels) {
+            out.writeUTF(level.getId());
+            out.writeUTF(level.getMusicPath());
+            out.writeInt(0);
+            out.writeInt(0);
+        }
+        int offset = index.size();
+
+        ByteArrayOutputStream world = new ByteArrayOutputStream();
+        out = new DataOutputStream(world);
+        out.writeInt(WorldContent.MAGIC);
+        out.writeInt(WorldContent.VERSION);
+        out.writeInt(levels.size());
+        for (int i = 0; i < levels.size(); i++) {
+            out.writeUTF(levels.get(i).getId());
+            out.writeUTF(levels.get(i).getMusicPath());
+            out.writeInt(offset);
+            out.writeInt(blocks.get(i).length);
+            offset += blocks.get(i).length;
+        }
+        for (byte[] block : blocks) {
+            out.write(block);
+        }
+        return world.toByteArray();
+    }
+
+    /**
+     * Writes one level. Rows and columns are shorts, and only the cells that have a
+     * label or a description are written:
+     * <pre>
+     *   UTF title, UTF music, UTF next level ("" for none)
+     *   UTF intro, UTF completion, UTF objective
+     *   exit row, exit column (-1 for none), start row, start column
+     *   rows, columns
+     *   int labels, each: row, column, UTF label
+     *   int descriptions, each: row, column, UTF text
+     *   short NPCs, each: row, column, UTF name, UTF line
+     *   short puzzles, each: row, column, UTF type,
+     *         short parameters, each: short values, each: UTF value
+     * </pre>
+     *
+     * @param level The level to write.
+     * @param out   The stream to write to.
+     * @throws IOException if a text is too long for the format.
+     */
+    static void writeLevel(LevelDefinition level, DataOutputStream out) throws IOException {
+        out.writeUTF(level.getTitle());
+        out.writeUTF(level.getMusicPath());
+        out.writeUTF(level.getNextLevelId() == null ? "" : level.getNextLevelId());
+        out.writeUTF(level.getIntro());
+        out.writeUTF(level.getCompletion());
+        out.writeUTF(level.getObjective());
+        out.writeShort(level.getExitRow());
+        out.writeShort(level.getExitCol());
+        out.writeShort(level.getStartRow());
+        out.writeShort(level.getStartCol());
+        out.writeShort(level.getRows());
+        out.writeShort(level.getCols());
+        writeCells(level.getLabels(), out);
+        writeCells(level.getDescriptions(), out);
+
+        out.writeShort(level.getNpcs().size());
+        for (LevelDefinition.NpcPlacement npc : level.getNpcs()) {
+            out.writeShort(npc.getRow());
+            out.writeShort(npc.getCol());
+            out.writeUTF(npc.getName());
+            out.writeUTF(npc.getLine());
+        }
+
+        out.writeShort(level.getPuzzles().size());
+        for (LevelDefinition.PuzzlePlacement puzzle : level.getPuzzles()) {
+            out.writeShort(puzzle.getRow());
+            out.writeShort(puzzle.getCol());
+            out.writeUTF(puzzle.getType());
+            out.writeShort(puzzle.getParams().size());
+            for (List<String> param : puzzle.getParams()) {
+                out.writeShort(param.size());
+                for (String value : param) {
+                    out.writeUTF(value);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeCells(ChunkedGrid<String> cells, DataOutputStream out) throws IOException {
+        out.writeInt(cells.size());
+        try {
+            cells.forEach((row, col, text) -> {
+                try {
+                    out.writeShort(row);
+                    out.writeShort(col);
+                    out.writeUTF(text);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String[] split(String value, String separator, int parts, String where) throws IOException {
+        String[] split = value.split(separator, parts);
+        if (split.length < parts) {
+            throw new IOException(where + "expected " + parts + " parts in \"" + value + "\"");
+        }
+        return split;
+    }
+
+    private static int parseIndex(String value, String where) throws IOException {
+        try {
+            int index = Integer.parseInt(value);
+            if (index >= 0 && index < MAX_SIZE) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below like any other bad index
+        }
+        throw new IOException(where + "not a grid index: " + value);
+    }
+
+    /**
+     * Replaces the escapes of the source, \n for a line break and \\ for a backslash.
+     *
+     * @param value The text as written in the source.
+     * @return The text as it is shown.
+     */
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                text.append(next == 'n' ? '\n' : next);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Compiles the world content.
+     *
+     * @param args optional source and optional output file, relative to the working directory.
+     * @throws IOException if the source is malformed or the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path source = Path.of(args.length > 0 ? args[0] : DEFAULT_SOURCE);
+        Path output = Path.of(args.length > 1 ? args[1] : DEFAULT_OUTPUT);
+        List<LevelDefinition> levels = parse(Files.readString(source, StandardCharsets.UTF_8), source.toString());
+        byte[] world = compile(levels);
+        // Written next to the output and moved into place, so a running game never reads half a file
+        Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        Files.write(temporary, world);
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Compiled " + levels.size() + " levels into " + output + " (" + world.length + " bytes)");
+    }
+
+    /**
+     * The LevelBuilder class collects the lines of one level while it is parsed.
+     */
+    private static class LevelBuilder {
+        private final String id;
+        private String title;
+        private String music;
+        private String next;
+        private String intro = "";
+        private String completion = "";
+        private String objective = "";
+        private int exitRow = -1;
+        private int exitCol = -1;
+        private int startRow = -1;
+        private int startCol = -1;
+        private int sizeRows = -1;
+        private int sizeCols = -1;
+        private final List<String[]> rows = new ArrayList<>();
+        private final List<CellText> labels = new ArrayList<>();
+        private final List<CellText> descriptions = new ArrayList<>();
+        private final List<LevelDefinition.NpcPlacement> npcs = new ArrayList<>();
+        private final List<PuzzleBuilder> puzzles = new ArrayList<>();
+        // Where the level starts in the source, for error messages
+        private final String where;
+
+        LevelBuilder(String id, String where) {
+            this.id = id;
+            this.where = where;
+        }
+
+        LevelDefinition build() throws IOException {
+            if (id.isEmpty() || title == null || music == null) {
+                throw new IOException(where + "level \"" + id + "\" needs an id, a title and music");
+            }
+            // The size is given, or it is the size of the row lines
+            int height = sizeRows >= 0 ? sizeRows : rows.size();
+            int width = sizeCols >= 0 ? sizeCols : rows.isEmpty() ? 0 : rows.get(0).length;
+            if (height <= 0 || width <= 0) {
+                throw new IOException(where + "level \"" + id + "\" needs a size or at least one row");
+            }
+            ChunkedGrid<String> labelGrid = new ChunkedGrid<>(height, width);
+            for (int row = 0; row < rows.size(); row++) {
+                String[] cells = rows.get(row);
+                if (sizeCols < 0 && cells.length != width) {
+                    throw new IOException(where + "the rows of level \"" + id + "\" differ in length");
+                }
+                for (int col = 0; col < cells.length; col++) {
+                    checkCell(labelGrid, row, col);
+                    labelGrid.set(row, col, cells[col]);
+                }
+            }
+            fill(labelGrid, labels);
+            ChunkedGrid<String> descriptionGrid = new ChunkedGrid<>(height, width);
+            fill(descriptionGrid, descriptions);
+
+            if (exitRow >= 0) {
+                checkCell(labelGrid, exitRow, exitCol);
+            }
+            if (startRow < 0) {
+                // Levels start at the middle of their bottom row unless they say otherwise
+                startRow = height - 1;
+                startCol = width / 2;
+            }
+            checkCell(labelGrid, startRow, startCol);
+            Set<Long> used = new HashSet<>();
+            for (LevelDefinition.NpcPlacement npc : npcs) {
+                checkFree(labelGrid, used, npc.getRow(), npc.getCol());
+            }
+            List<LevelDefinition.PuzzlePlacement> placed = new ArrayList<>();
+            for (PuzzleBuilder puzzle : puzzles) {
+                checkFree(labelGrid, used, puzzle.row, puzzle.col);
+                placed.add(new LevelDefinition.PuzzlePlacement(puzzle.row, puzzle.col, puzzle.type, puzzle.params));
+            }
+            return new LevelDefinition(id, title, music, next, intro, completion, objective, exitRow, exitCol,
+                    startRow, startCol, labelGrid, descriptionGrid, npcs, placed);
+        }
+
+        private void fill(ChunkedGrid<String> grid, List<CellText> cells) throws IOException {
+            for (CellText cell : cells) {
+                checkCell(grid, cell.row, cell.col);
+                grid.set(cell.row, cell.col, cell.text);
+            }
+        }
+
+        private void checkCell(ChunkedGrid<?> grid, int row, int col) throws IOException {
+            if (!grid.contains(row, col)) {
+                throw new IOException(where + "cell " + row + "," + col + " lies outside level \"" + id + "\"");
+            }
+        }
+
+        private void checkFree(ChunkedGrid<?> grid, Set<Long> used, int row, int col) throws IOException {
+            checkCell(grid, row, col);
+            if (!used.add(((long) row << 32) | col)) {
+                throw new IOException(where + "cell " + row + "," + col + " of level \"" + id + "\" holds two NPCs or puzzles");
+            }
+        }
+    }
+
+    /**
+     * The CellText class is a text the source gives one cell, a label or a description.
+     */
+    private static class CellText {
+        private final int row;
+        private final int col;
+        private final String text;
+
+        CellText(int row, int col, String text) {
+            this.row = row;
+            this.col = col;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The PuzzleBuilder class collects a puzzle and the parameters that follow it.
+     */
+    private static class PuzzleBuilder {
+        private final int row;
+        private final int col;
+        private final String type;
+        private final List<List<String>> params = new ArrayList<>();
+
+        PuzzleBuilder(int row, int col, String type) {
+            this.row = row;
+            this.col = col;
+            this.type = type;
+        }
+    }
+}
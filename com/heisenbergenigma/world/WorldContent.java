@@ -0,0 +1,230 @@
+package com.heisenbergenigma.world;
+
+import com.heisenbergenigma.pack.AssetPack;
+import com.heisenbergenigma.pack.ByteBufferInputStream;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The WorldContent class gives access to the levels compiled by {@link WorldCompiler}.
+ * Only the index of the levels is read up front; a level's grid and texts are decoded
+ * when it is loaded, so a running game holds the strings of the level being played
+ * and not those of the whole world.
+ * <p>
+ * The compiled content is read from the shared {@link AssetPack} when it holds it,
+ * otherwise from the classpath. Without a compiled file the source is compiled in
+ * memory on first use, so edits to the source can be played without the build step.
+ */
+public class WorldContent {
+    public static final int MAGIC = 0x48455744;
+    public static final int VERSION = 2;
+
+    private static volatile WorldContent shared;
+
+    // The compiled content, a slice of the asset pack's mapping when the pack holds it
+    private final ByteBuffer content;
+    private final Map<String, Entry> entries;
+
+    private WorldContent(ByteBuffer content, Map<String, Entry> entries) {
+        this.content = content;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the index of compiled world content.
+     *
+     * @param content The compiled content.
+     * @return The opened content.
+     * @throws IOException if the content is not compiled world content.
+     */
+    public static WorldContent open(ByteBuffer content) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(content.duplicate()));
+        if (content.remaining() < 12 || in.readInt() != MAGIC) {
+            throw new IOException("Not compiled world content");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported world content version " + version);
+        }
+        int count = in.readInt();
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            String music = in.readUTF();
+            int offset = in.readInt();
+            int length = in.readInt();
+            if (offset < 0 || length < 0 || offset + length > content.remaining()) {
+                throw new IOException("Level " + id + " lies outside the world content");
+            }
+            entries.put(id, new Entry(music, offset, length));
+        }
+        return new WorldContent(content, entries);
+    }
+
+    /**
+     * Returns the world content shared by every session of the process, opened on
+     * first use.
+     *
+     * @return The shared world content.
+     * @throws UncheckedIOException if there is no world content or it cannot be read.
+     */
+    public static WorldContent shared() {
+        if (shared == null) {
+            synchronized (WorldContent.class) {
+                if (shared == null) {
+                    try {
+                        shared = open(readContent());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Can't load the world content", e);
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Finds the compiled content in the asset pack or on the classpath, or compiles
+     * the source when there is none.
+     *
+     * @return The compiled content.
+     * @throws IOException if neither the compiled content nor the source can be read.
+     */
+    private static ByteBuffer readContent() throws IOException {
+        AssetPack pack = AssetPack.shared();
+        if (pack != null && pack.contains(WorldCompiler.DEFAULT_OUTPUT)) {
+            return pack.slice(WorldCompiler.DEFAULT_OUTPUT);
+        }
+        ClassLoader loader = WorldContent.class.getClassLoader();
+        try (InputStream compiled = loader.getResourceAsStream(WorldCompiler.DEFAULT_OUTPUT)) {
+            if (compiled != null) {
+                return ByteBuffer.wrap(compiled.readAllBytes());
+            }
+        }
+        try (InputStream source = loader.getResourceAsStream(WorldCompiler.DEFAULT_SOURCE)) {
+            if (source == null) {
+                throw new IOException("Can't find file: " + WorldCompiler.DEFAULT_SOURCE);
+            }
+            String text = new String(source.readAllBytes(), StandardCharsets.UTF_8);
+            return ByteBuffer.wrap(WorldCompiler.compile(WorldCompiler.parse(text, WorldCompiler.DEFAULT_SOURCE)));
+        }
+    }
+
+    /**
+     * Decodes one level.
+     *
+     * @param id The id of the level.
+     * @return The definition of the level.
+     * @throws IllegalArgumentException if the world has no such level.
+     * @throws UncheckedIOException     if the level is malformed.
+     */
+    public LevelDefinition loadLevel(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("No such level: " + id);
+        }
+        ByteBuffer block = content.slice(content.position() + entry.offset, entry.length);
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(block));
+        try {
+            String title = in.readUTF();
+            String music = in.readUTF();
+            String next = in.readUTF();
+            String intro = in.readUTF();
+            String completion = in.readUTF();
+            String objective = in.readUTF();
+            int exitRow = in.readShort();
+            int exitCol = in.readShort();
+            int startRow = in.readShort();
+            int startCol = in.readShort();
+            int rows = in.readShort();
+            int cols = in.readShort();
+            ChunkedGrid<String> labels = readCells(in, rows, cols);
+            ChunkedGrid<String> descriptions = readCells(in, rows, cols);
+
+            List<LevelDefinition.NpcPlacement> npcs = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                npcs.add(new LevelDefinition.NpcPlacement(in.readShort(), in.readShort(),
+                        in.readUTF(), in.readUTF()));
+            }
+
+            List<LevelDefinition.PuzzlePlacement> puzzles = new ArrayList<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                int row = in.readShort();
+                int col = in.readShort();
+                String type = in.readUTF();
+                List<List<String>> params = new ArrayList<>();
+                for (int p = in.readUnsignedShort(); p > 0; p--) {
+                    List<String> values = new ArrayList<>();
+                    for (int v = in.readUnsignedShort(); v > 0; v--) {
+                        values.add(in.readUTF());
+                    }
+                    params.add(values);
+                }
+                puzzles.add(new LevelDefinition.PuzzlePlacement(row, col, type, params));
+            }
+
+            return new LevelDefinition(id, title, music, next.isEmpty() ? null : next, intro, completion,
+                    objective, exitRow, exitCol, startRow, startCol, labels, descriptions, npcs, puzzles);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Level " + id + " is malformed", e);
+        }
+    }
+
+    private static ChunkedGrid<String> readCells(DataInputStream in, int rows, int cols) throws IOException {
+        ChunkedGrid<String> cells = new ChunkedGrid<>(rows, cols);
+        for (int i = in.readInt(); i > 0; i--) {
+            cells.set(in.readShort(), in.readShort(), in.readUTF());
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the background music of a level without loading the level.
+     *
+     * @param id The id of the level.
+     * @return The classpath location of the music.
+     * @throws IllegalArgumentException if the world has no such level.
+     */
+    public String getMusicPath(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("No such level: " + id);
+        }
+        return entry.music;
+    }
+
+    /**
+     * Returns the ids of all levels, in the order they are played.
+     *
+     * @return The ids of the levels.
+     */
+    public Set<String> getLevelIds() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * The Entry class is the index record of one level.
+     */
+    private static class Entry {
+        private final String music;
+        private final int offset;
+        private final int length;
+
+        Entry(String music, int offset, int length) {
+            this.music = music;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}